@@ -62,6 +62,7 @@ loom {
 dependencies {
 	api(project(":api", configuration = "namedElements"))
 	include(project(":api"))
+	implementation(project(":engine"))
 
 	modImplementation(libs.fabric.loader)
 	fabricApiModules.forEach { modImplementation(it) }
@@ -91,6 +92,9 @@ dependencies {
 	shadow(libs.yumi.commons.event) {
 		isTransitive = false
 	}
+	shadow(project(":engine")) {
+		isTransitive = false
+	}
 	shadow(libs.nightconfig.core)
 	shadow(libs.nightconfig.toml)
 }
@@ -0,0 +1,59 @@
+import lambdynamiclights.Constants
+
+plugins {
+	`java-library`
+	id("dev.yumi.gradle.licenser")
+	alias(libs.plugins.jmh)
+}
+
+group = Constants.GROUP
+version = Constants.VERSION
+
+base.archivesName.set(Constants.NAME + "-engine")
+
+repositories {
+	mavenCentral()
+}
+
+dependencies {
+	// Provided by Minecraft at runtime, so it is not shadowed in the mod.
+	api(libs.fastutil)
+	compileOnly(libs.jetbrains.annotations)
+
+	testImplementation(platform(libs.junit.bom))
+	testImplementation(libs.junit.jupiter)
+	testCompileOnly(libs.jetbrains.annotations)
+	testRuntimeOnly(libs.junit.platform.launcher)
+}
+
+java {
+	sourceCompatibility = JavaVersion.toVersion(Constants.JAVA_VERSION)
+	targetCompatibility = JavaVersion.toVersion(Constants.JAVA_VERSION)
+
+	withSourcesJar()
+}
+
+tasks.withType<JavaCompile>().configureEach {
+	options.encoding = "UTF-8"
+	options.release.set(Constants.JAVA_VERSION)
+}
+
+// The fuzz test can be run longer with -Plambdynlights.fuzz.iterations=<trials>, and replayed with -Plambdynlights.fuzz.seed=<seed>.
+tasks.test {
+	useJUnitPlatform()
+
+	listOf("lambdynlights.fuzz.iterations", "lambdynlights.fuzz.seed").forEach { property ->
+		(project.findProperty(property) as String?)?.let { systemProperty(property, it) }
+	}
+}
+
+// Benchmarks are run with ./gradlew :engine:jmh, a subset can be selected with -Pjmh.includes=<regex>.
+jmh {
+	jmhVersion = libs.versions.jmh.get()
+	(project.findProperty("jmh.includes") as String?)?.let { includes.add(it) }
+	resultFormat = "JSON"
+}
+
+license {
+	rule(rootProject.file("metadata/HEADER"))
+}
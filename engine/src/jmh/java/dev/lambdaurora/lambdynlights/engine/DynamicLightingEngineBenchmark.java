@@ -0,0 +1,161 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of LambDynamicLights.
+ *
+ * Licensed under the Lambda License. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.lambdynlights.engine;
+
+import dev.lambdaurora.lambdynlights.engine.lookup.SpatialLookupLayout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the dynamic lighting engine on {@linkplain DynamicLightingScenario synthetic scenarios}:
+ * the computation of the spatial lookup every tick, and the queries of the chunk builder.
+ * <p>
+ * Run with {@code ./gradlew :engine:jmh -Pjmh.includes=DynamicLightingEngineBenchmark},
+ * parameters may be restricted with the usual JMH {@code -p} arguments when running the JMH jar directly.
+ *
+ * @author LambdAurora
+ * @version 4.0.0
+ * @since 4.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DynamicLightingEngineBenchmark {
+	/**
+	 * The amount of ticks the scenario is advanced by before measuring, so that it reaches its steady state.
+	 */
+	private static final int WARMUP_TICKS = 200;
+	private static final int QUERIES = 4096;
+	private static final long SEED = 0x4C44_4C5FL;
+
+	@Param({"WALKING_PLAYER", "ITEM_FARM", "BEACON_GRID", "TNT_BURST", "GUARDIAN_LASERS"})
+	public DynamicLightingScenario scenario;
+	@Param({"NEIGHBOR_PROBES", "REPLICATED"})
+	public SpatialLookupLayout layout;
+
+	private DynamicLightingScenario.Scene scene;
+	private DynamicLightingEngine engine;
+	/**
+	 * The queried block positions, as consecutive X, Y and Z coordinates.
+	 */
+	private final int[] queries = new int[QUERIES * 3];
+	private final SectionDynamicLightLevels sectionLevels = new SectionDynamicLightLevels();
+	/**
+	 * The chunk sections to fill, as consecutive X, Y and Z coordinates.
+	 */
+	private int[] sections;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		var random = new Random(SEED);
+		this.scene = this.scenario.create(random);
+		this.engine = new DynamicLightingEngine(new Settings(this.layout));
+
+		for (int i = 0; i < WARMUP_TICKS; i++) {
+			this.tick();
+		}
+
+		for (int i = 0; i < QUERIES; i++) {
+			this.scene.pickQueryPosition(random, this.queries, i * 3);
+		}
+
+		// The chunk sections of the queried box, as the chunk builder would rebuild them.
+		int startX = DynamicLightingEngine.positionToSection(this.scene.offsetX);
+		int startY = DynamicLightingEngine.positionToSection(this.scene.offsetY);
+		int startZ = DynamicLightingEngine.positionToSection(this.scene.offsetZ);
+		int endX = DynamicLightingEngine.positionToSection(this.scene.offsetX + this.scene.sizeX - 1);
+		int endY = DynamicLightingEngine.positionToSection(this.scene.offsetY + this.scene.sizeY - 1);
+		int endZ = DynamicLightingEngine.positionToSection(this.scene.offsetZ + this.scene.sizeZ - 1);
+		this.sections = new int[(endX - startX + 1) * (endY - startY + 1) * (endZ - startZ + 1) * 3];
+
+		int i = 0;
+		for (int x = startX; x <= endX; x++) {
+			for (int y = startY; y <= endY; y++) {
+				for (int z = startZ; z <= endZ; z++) {
+					this.sections[i++] = x;
+					this.sections[i++] = y;
+					this.sections[i++] = z;
+				}
+			}
+		}
+	}
+
+	private void tick() {
+		this.scene.advance();
+		this.engine.computeSpatialLookup(this.scene.sources, this.scene.cameraX, this.scene.cameraY, this.scene.cameraZ);
+	}
+
+	/**
+	 * Advances the scenario by one tick and computes the spatial lookup, as done every client tick.
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public void computeSpatialLookup() {
+		this.tick();
+	}
+
+	/**
+	 * Queries the dynamic light level of single blocks around the light sources.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public void getDynamicLightLevel(Blackhole blackhole) {
+		for (int i = 0; i < this.queries.length; i += 3) {
+			blackhole.consume(this.engine.getDynamicLightLevel(this.queries[i], this.queries[i + 1], this.queries[i + 2], DynamicLightQuerySite.OTHER));
+		}
+	}
+
+	/**
+	 * Computes the dynamic light levels of whole chunk sections around the light sources, as the chunk builder does.
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public void fillSectionLightLevels(Blackhole blackhole) {
+		for (int i = 0; i < this.sections.length; i += 3) {
+			this.engine.fillSectionLightLevels(this.sections[i], this.sections[i + 1], this.sections[i + 2], this.sectionLevels, DynamicLightQuerySite.BLOCK_MESHING);
+			blackhole.consume(this.sectionLevels);
+		}
+	}
+
+	private record Settings(SpatialLookupLayout layout) implements DynamicLightingSettings {
+		@Override
+		public boolean isDynamicLightingEnabled() {
+			return true;
+		}
+
+		@Override
+		public int getMaxLightEntries() {
+			return 16384;
+		}
+
+		@Override
+		public SpatialLookupLayout getLookupLayout() {
+			return this.layout;
+		}
+	}
+}
@@ -0,0 +1,459 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of LambDynamicLights.
+ *
+ * Licensed under the Lambda License. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.lambdynlights.engine;
+
+import dev.lambdaurora.lambdynlights.engine.lookup.SpatialLookupEntry;
+import dev.lambdaurora.lambdynlights.engine.lookup.SpatialLookupSink;
+import dev.lambdaurora.lambdynlights.engine.source.DynamicLightSource;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Represents synthetic but realistic distributions of dynamic light sources, which evolve tick after tick.
+ * <p>
+ * Every scenario is seeded, so a given scenario always goes through the same states.
+ *
+ * @author LambdAurora
+ * @version 4.0.0
+ * @since 4.0.0
+ */
+public enum DynamicLightingScenario {
+	/**
+	 * A single player holding a torch, walking in a straight line.
+	 */
+	WALKING_PLAYER {
+		@Override
+		Scene create(Random random) {
+			var player = new PointLightSource(DynamicLightSource.Kind.PLAYER, 0.5, 65.62, 0.5, 14);
+
+			return new Scene(List.of(player), -8, 56, -8, 24, 16, 16) {
+				@Override
+				void tick() {
+					// Walking speed, with the bobbing of the camera.
+					player.x += 0.2158;
+					player.y = 65.62 + Math.sin(this.ticks * 0.6) * 0.05;
+					this.cameraX = player.x;
+					this.cameraY = player.y;
+					this.offsetX = (int) Math.floor(player.x) - 8;
+				}
+			};
+		}
+	},
+	/**
+	 * A farm with 500 glowing item entities, most of them waiting in hoppers while the others flow in a water stream.
+	 */
+	ITEM_FARM {
+		@Override
+		Scene create(Random random) {
+			var items = new ArrayList<PointLightSource>();
+
+			for (int i = 0; i < 500; i++) {
+				items.add(new PointLightSource(
+						DynamicLightSource.Kind.ENTITY,
+						random.nextDouble() * 32., 64.125, random.nextDouble() * 32.,
+						random.nextBoolean() ? 15 : 8
+				));
+			}
+
+			return new Scene(items, -8, 56, -8, 48, 24, 48) {
+				@Override
+				void tick() {
+					for (int i = 0; i < items.size(); i++) {
+						// A third of the items flow towards the collection point.
+						if (i % 3 != 0) continue;
+
+						var item = items.get(i);
+						item.x += 0.1;
+						if (item.x >= 32.) {
+							item.x -= 32.;
+						}
+					}
+				}
+			};
+		}
+	},
+	/**
+	 * A grid of 25 beacons, whose beams cover the whole height of the world.
+	 */
+	BEACON_GRID {
+		@Override
+		Scene create(Random random) {
+			var beacons = new ArrayList<DynamicLightSource>();
+
+			for (int x = 0; x < 5; x++) {
+				for (int z = 0; z < 5; z++) {
+					beacons.add(new BeaconLightSource(x * 6, 64, z * 6, 15, 320));
+				}
+			}
+
+			return new Scene(beacons, -8, 56, -8, 48, 48, 48) {
+				@Override
+				void tick() {
+				}
+			};
+		}
+	},
+	/**
+	 * A TNT cannon firing volleys of primed TNT, which fly in arcs until they explode.
+	 */
+	TNT_BURST {
+		private static final int TNT_COUNT = 200;
+		private static final int FUSE = 80;
+
+		@Override
+		Scene create(Random random) {
+			var tnt = new ArrayList<PointLightSource>();
+			var velocities = new double[TNT_COUNT * 3];
+			var fuses = new int[TNT_COUNT];
+
+			for (int i = 0; i < TNT_COUNT; i++) {
+				tnt.add(new PointLightSource(DynamicLightSource.Kind.ENTITY, 0.5, 70., 0.5, 0));
+				// Volleys of 20 are fired every 8 ticks, a negative fuse is the delay before the first shot.
+				fuses[i] = -(i / 20) * 8;
+			}
+
+			return new Scene(tnt, 0, 56, -16, 96, 48, 32) {
+				@Override
+				void tick() {
+					for (int i = 0; i < TNT_COUNT; i++) {
+						var entity = tnt.get(i);
+
+						if (fuses[i] < 0) {
+							fuses[i]++;
+							continue;
+						} else if (fuses[i] == 0) {
+							// Fired or exploded, fire it again from the cannon.
+							fuses[i] = FUSE;
+							entity.x = 0.5;
+							entity.y = 70.;
+							entity.z = 0.5;
+							velocities[i * 3] = 1.5 + random.nextDouble() * 0.2;
+							velocities[i * 3 + 1] = 0.6 + random.nextDouble() * 0.1;
+							velocities[i * 3 + 2] = (random.nextDouble() - 0.5) * 0.2;
+						}
+
+						entity.x += velocities[i * 3];
+						entity.y += velocities[i * 3 + 1];
+						entity.z += velocities[i * 3 + 2];
+						velocities[i * 3] *= 0.98;
+						velocities[i * 3 + 1] = (velocities[i * 3 + 1] - 0.04) * 0.98;
+						velocities[i * 3 + 2] *= 0.98;
+						fuses[i]--;
+
+						// Same luminance as the primed TNT light source.
+						entity.luminance = (int) (-smoothstep((float) fuses[i] / FUSE) * 10.f) + 10;
+					}
+				}
+			};
+		}
+	},
+	/**
+	 * Guardians of an ocean monument attacking a swimming player with their lasers.
+	 */
+	GUARDIAN_LASERS {
+		private static final int GUARDIANS = 12;
+
+		@Override
+		Scene create(Random random) {
+			var beams = new ArrayList<LineLightSource>();
+			var guardians = new double[GUARDIANS * 3];
+
+			for (int i = 0; i < GUARDIANS; i++) {
+				guardians[i * 3] = random.nextDouble() * 32.;
+				guardians[i * 3 + 1] = 40. + random.nextDouble() * 16.;
+				guardians[i * 3 + 2] = random.nextDouble() * 32.;
+
+				var beam = new LineLightSource(7);
+				beam.setPoints(guardians[i * 3], guardians[i * 3 + 1], guardians[i * 3 + 2], 16., 50., 16.);
+				beams.add(beam);
+			}
+
+			return new Scene(beams, -8, 32, -8, 48, 32, 48) {
+				@Override
+				void tick() {
+					// The player swims in circles, the guardians follow them.
+					double targetX = 16. + Math.cos(this.ticks * 0.05) * 6.;
+					double targetZ = 16. + Math.sin(this.ticks * 0.05) * 6.;
+
+					for (int i = 0; i < GUARDIANS; i++) {
+						var beam = beams.get(i);
+						guardians[i * 3] += Math.signum(targetX - guardians[i * 3]) * 0.05;
+						guardians[i * 3 + 2] += Math.signum(targetZ - guardians[i * 3 + 2]) * 0.05;
+
+						beam.setPoints(guardians[i * 3], guardians[i * 3 + 1], guardians[i * 3 + 2], targetX, 50.9, targetZ);
+						// The attack charges up over 80 ticks.
+						beam.luminance = 7 + (int) (((this.ticks + i * 7) % 80) / 80.f * 5);
+					}
+
+					this.cameraX = targetX;
+					this.cameraZ = targetZ;
+				}
+			};
+		}
+	};
+
+	/**
+	 * Creates a new instance of this scenario.
+	 *
+	 * @param random the random to use to create and animate the scenario
+	 * @return the new scene
+	 */
+	abstract Scene create(Random random);
+
+	/**
+	 * Represents an instance of a scenario.
+	 */
+	public static abstract class Scene {
+		final List<? extends DynamicLightSource> sources;
+		double cameraX;
+		double cameraY;
+		double cameraZ;
+		/**
+		 * The box where the light levels are queried, which follows the light sources.
+		 */
+		int offsetX;
+		int offsetY;
+		int offsetZ;
+		final int sizeX;
+		final int sizeY;
+		final int sizeZ;
+		int ticks = 0;
+
+		Scene(List<? extends DynamicLightSource> sources, int offsetX, int offsetY, int offsetZ, int sizeX, int sizeY, int sizeZ) {
+			this.sources = sources;
+			this.offsetX = offsetX;
+			this.offsetY = offsetY;
+			this.offsetZ = offsetZ;
+			this.sizeX = sizeX;
+			this.sizeY = sizeY;
+			this.sizeZ = sizeZ;
+			this.cameraX = offsetX + sizeX / 2.;
+			this.cameraY = offsetY + sizeY / 2.;
+			this.cameraZ = offsetZ + sizeZ / 2.;
+		}
+
+		/**
+		 * Advances this scene by one tick.
+		 */
+		public void advance() {
+			this.tick();
+			this.ticks++;
+		}
+
+		abstract void tick();
+
+		/**
+		 * Picks a position in the box where the light levels are queried.
+		 *
+		 * @param random the random to use
+		 * @param positions the array to write the X, Y and Z coordinates of the picked position to
+		 * @param index the index of the X-coordinate in the array
+		 */
+		public void pickQueryPosition(Random random, int[] positions, int index) {
+			positions[index] = this.offsetX + random.nextInt(this.sizeX);
+			positions[index + 1] = this.offsetY + random.nextInt(this.sizeY);
+			positions[index + 2] = this.offsetZ + random.nextInt(this.sizeZ);
+		}
+	}
+
+	private static float smoothstep(float value) {
+		// Same as Minecraft's smoothstep, which the primed TNT light source uses.
+		return value * value * value * (value * (value * 6.f - 15.f) + 10.f);
+	}
+
+	/**
+	 * Represents a light source made of a volume of blocks, like the light sources of dynamic light behaviors
+	 * but evaluated on primitive coordinates so that no level is needed.
+	 * <p>
+	 * The entries cover every cell of the bounding box, and the light is evaluated live.
+	 */
+	static abstract class VolumeLightSource implements DynamicLightSource, SpatialLookupEntry {
+		static final double FALLOFF_RATIO = 15. / DynamicLightingEngine.MAX_RADIUS;
+
+		int startX;
+		int startY;
+		int startZ;
+		int endX;
+		int endY;
+		int endZ;
+
+		/**
+		 * Evaluates the light of this volume at the given block, which may be negative.
+		 *
+		 * @param x the X-coordinate of the block
+		 * @param y the Y-coordinate of the block
+		 * @param z the Z-coordinate of the block
+		 * @return the light level
+		 */
+		abstract double lightAt(int x, int y, int z);
+
+		@Override
+		public void splitIntoDynamicLightEntries(@NotNull SpatialLookupSink sink) {
+			int cellEndX = DynamicLightingEngine.positionToCell(this.endX);
+			int cellEndY = DynamicLightingEngine.positionToCell(this.endY);
+			int cellEndZ = DynamicLightingEngine.positionToCell(this.endZ);
+
+			for (int x = DynamicLightingEngine.positionToCell(this.startX); x <= cellEndX; x++) {
+				for (int y = DynamicLightingEngine.positionToCell(this.startY); y <= cellEndY; y++) {
+					for (int z = DynamicLightingEngine.positionToCell(this.startZ); z <= cellEndZ; z++) {
+						sink.accept(DynamicLightingEngine.cellKey(x, y, z), this);
+					}
+				}
+			}
+		}
+
+		@Override
+		public boolean hasSpatialLookupEntriesChanged(@NotNull LongList previousCellKeys) {
+			int cellStartX = DynamicLightingEngine.positionToCell(this.startX);
+			int cellStartY = DynamicLightingEngine.positionToCell(this.startY);
+			int cellStartZ = DynamicLightingEngine.positionToCell(this.startZ);
+			int cellEndX = DynamicLightingEngine.positionToCell(this.endX);
+			int cellEndY = DynamicLightingEngine.positionToCell(this.endY);
+			int cellEndZ = DynamicLightingEngine.positionToCell(this.endZ);
+
+			int cellCount = (cellEndX - cellStartX + 1) * (cellEndY - cellStartY + 1) * (cellEndZ - cellStartZ + 1);
+			return previousCellKeys.size() != cellCount
+					|| previousCellKeys.getLong(0) != DynamicLightingEngine.cellKey(cellStartX, cellStartY, cellStartZ)
+					|| previousCellKeys.getLong(cellCount - 1) != DynamicLightingEngine.cellKey(cellEndX, cellEndY, cellEndZ);
+		}
+
+		@Override
+		public double getDynamicLightPriority(double cameraX, double cameraY, double cameraZ) {
+			int closestX = (int) Math.floor(Math.min(Math.max(cameraX, this.startX), this.endX));
+			int closestY = (int) Math.floor(Math.min(Math.max(cameraY, this.startY), this.endY));
+			int closestZ = (int) Math.floor(Math.min(Math.max(cameraZ, this.startZ), this.endZ));
+			double dx = closestX + 0.5 - cameraX;
+			double dy = closestY + 0.5 - cameraY;
+			double dz = closestZ + 0.5 - cameraZ;
+
+			return DynamicLightSource.computePriority(
+					Kind.BEHAVIOR, this.lightAt(closestX, closestY, closestZ), dx * dx + dy * dy + dz * dz
+			);
+		}
+
+		@Override
+		public double getDynamicLightLevel(int x, int y, int z) {
+			return Math.max(this.lightAt(x, y, z), 0);
+		}
+
+		@Override
+		public void gatherDynamicLightChunksToRebuild(boolean forced, @NotNull LongSet chunks) {
+			// There are no chunks to rebuild in benchmarks.
+		}
+	}
+
+	/**
+	 * Represents a beacon beam, like the beacon light behavior without requiring a level.
+	 */
+	static final class BeaconLightSource extends VolumeLightSource {
+		private final int luminance;
+
+		/**
+		 * @param x the X-coordinate of the beam
+		 * @param y the Y-coordinate of the start of the beam
+		 * @param z the Z-coordinate of the beam
+		 * @param luminance the luminance of the beam
+		 * @param top the Y-coordinate of the top of the world
+		 */
+		BeaconLightSource(int x, int y, int z, int luminance, int top) {
+			this.startX = x;
+			this.startY = y;
+			this.startZ = z;
+			this.endX = x + 1;
+			this.endY = top;
+			this.endZ = z + 1;
+			this.luminance = luminance;
+		}
+
+		@Override
+		double lightAt(int x, int y, int z) {
+			double dx = x - this.startX;
+			double dz = z - this.startZ;
+
+			double distanceSquared = dx * dx + dz * dz;
+
+			if (y < this.startY) {
+				double dy = y - this.startY;
+				distanceSquared += dy * dy;
+			}
+
+			return this.luminance - Math.sqrt(distanceSquared) * FALLOFF_RATIO;
+		}
+	}
+
+	/**
+	 * Represents a line of light such as a guardian laser, like the line light behavior.
+	 * <p>
+	 * Unlike the line light behavior, the bounding box always covers the whole line whatever its direction.
+	 */
+	static final class LineLightSource extends VolumeLightSource {
+		private double fromX;
+		private double fromY;
+		private double fromZ;
+		private double toX;
+		private double toY;
+		private double toZ;
+		int luminance;
+
+		LineLightSource(int luminance) {
+			this.luminance = luminance;
+		}
+
+		void setPoints(double fromX, double fromY, double fromZ, double toX, double toY, double toZ) {
+			this.fromX = fromX;
+			this.fromY = fromY;
+			this.fromZ = fromZ;
+			this.toX = toX;
+			this.toY = toY;
+			this.toZ = toZ;
+			this.startX = (int) Math.floor(Math.min(fromX, toX));
+			this.startY = (int) Math.floor(Math.min(fromY, toY));
+			this.startZ = (int) Math.floor(Math.min(fromZ, toZ));
+			this.endX = (int) Math.ceil(Math.max(fromX, toX));
+			this.endY = (int) Math.ceil(Math.max(fromY, toY));
+			this.endZ = (int) Math.ceil(Math.max(fromZ, toZ));
+		}
+
+		@Override
+		double lightAt(int x, int y, int z) {
+			double lineX = this.toX - this.fromX;
+			double lineY = this.toY - this.fromY;
+			double lineZ = this.toZ - this.fromZ;
+			double startX = x + 0.5 - this.fromX;
+			double startY = y + 0.5 - this.fromY;
+			double startZ = z + 0.5 - this.fromZ;
+
+			if (startX * lineX + startY * lineY + startZ * lineZ <= 0.) {
+				return this.luminance - Math.sqrt(startX * startX + startY * startY + startZ * startZ) * FALLOFF_RATIO;
+			}
+
+			double endX = x + 0.5 - this.toX;
+			double endY = y + 0.5 - this.toY;
+			double endZ = z + 0.5 - this.toZ;
+
+			if (endX * lineX + endY * lineY + endZ * lineZ >= 0.) {
+				return this.luminance - Math.sqrt(endX * endX + endY * endY + endZ * endZ) * FALLOFF_RATIO;
+			}
+
+			// The distance to the line is |line x start| / |line|.
+			double crossX = lineY * startZ - lineZ * startY;
+			double crossY = lineZ * startX - lineX * startZ;
+			double crossZ = lineX * startY - lineY * startX;
+			double distance = Math.sqrt((crossX * crossX + crossY * crossY + crossZ * crossZ)
+					/ (lineX * lineX + lineY * lineY + lineZ * lineZ));
+			return this.luminance - distance * FALLOFF_RATIO;
+		}
+	}
+}
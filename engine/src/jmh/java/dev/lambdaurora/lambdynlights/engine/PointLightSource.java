@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of LambDynamicLights.
+ *
+ * Licensed under the Lambda License. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.lambdynlights.engine;
+
+import dev.lambdaurora.lambdynlights.engine.lookup.SpatialLookupSink;
+import dev.lambdaurora.lambdynlights.engine.source.DynamicLightSource;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Represents a point light source which behaves like an entity light source, without requiring an entity.
+ *
+ * @author LambdAurora
+ * @version 4.0.0
+ * @since 4.0.0
+ */
+public final class PointLightSource implements DynamicLightSource {
+	private final Kind kind;
+	public double x;
+	public double y;
+	public double z;
+	public int luminance;
+
+	public PointLightSource(Kind kind, double x, double y, double z, int luminance) {
+		this.kind = kind;
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		this.luminance = luminance;
+	}
+
+	@Override
+	public void splitIntoDynamicLightEntries(@NotNull SpatialLookupSink sink) {
+		sink.acceptPoint(this.getCellKey(), this.x, this.y, this.z, this.luminance);
+	}
+
+	@Override
+	public boolean hasSpatialLookupEntriesChanged(@NotNull LongList previousCellKeys) {
+		return previousCellKeys.size() != 1 || previousCellKeys.getLong(0) != this.getCellKey();
+	}
+
+	@Override
+	public boolean hasLivePointLights() {
+		return true;
+	}
+
+	@Override
+	public void gatherDynamicLightChunksToRebuild(boolean forced, @NotNull LongSet chunks) {
+	}
+
+	@Override
+	public double getDynamicLightPriority(double cameraX, double cameraY, double cameraZ) {
+		double dx = this.x - cameraX;
+		double dy = this.y - cameraY;
+		double dz = this.z - cameraZ;
+
+		return DynamicLightSource.computePriority(this.kind, this.luminance, dx * dx + dy * dy + dz * dz);
+	}
+
+	private long getCellKey() {
+		return DynamicLightingEngine.cellKeyAt((int) Math.floor(this.x), (int) Math.floor(this.y), (int) Math.floor(this.z));
+	}
+}
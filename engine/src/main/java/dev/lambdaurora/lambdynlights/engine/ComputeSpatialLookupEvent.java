@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of LambDynamicLights.
+ *
+ * Licensed under the Lambda License. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.lambdynlights.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Represents the Java Flight Recorder event of a spatial lookup computation.
+ *
+ * @author LambdAurora
+ * @version 4.0.0
+ * @since 4.0.0
+ */
+@Name("dev.lambdaurora.lambdynlights.ComputeSpatialLookup")
+@Label("Compute Spatial Lookup")
+@Category({"LambDynamicLights", "Engine"})
+@Description("Computation of the spatial lookup of the dynamic light sources.")
+@StackTrace(false)
+final class ComputeSpatialLookupEvent extends Event {
+	@Label("Light Sources")
+	int lightSources;
+
+	@Label("Full Rebuild")
+	@Description("Whether the spatial lookup has been fully rebuilt instead of being updated incrementally.")
+	boolean fullRebuild;
+
+	@Label("Re-binned Light Sources")
+	int rebinned;
+
+	@Label("Entries")
+	int entries;
+
+	@Label("Evicted Light Sources")
+	int evicted;
+}
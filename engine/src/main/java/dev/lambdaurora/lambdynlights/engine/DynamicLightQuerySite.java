@@ -0,0 +1,55 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of LambDynamicLights.
+ *
+ * Licensed under the Lambda License. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.lambdynlights.engine;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Represents where a dynamic light level query comes from, which is used to attribute the cost of the queries.
+ *
+ * @author LambdAurora
+ * @version 4.0.0
+ * @since 4.0.0
+ */
+public enum DynamicLightQuerySite {
+	/**
+	 * The light levels of blocks, queried when meshing chunk sections or when rendering with the light of a block.
+	 */
+	BLOCK_MESHING("meshing"),
+	/**
+	 * The light levels of the corners of blocks, queried by the ambient occlusion of the renderer.
+	 */
+	AMBIENT_OCCLUSION("ao"),
+	/**
+	 * The light levels of entities, queried by the entity renderer.
+	 */
+	ENTITY("entity"),
+	/**
+	 * The light levels queried by the debug renderers and the debug screen.
+	 */
+	DEBUG("debug"),
+	/**
+	 * Any other query, such as the ones made through the API.
+	 */
+	OTHER("other");
+
+	private final String name;
+
+	DynamicLightQuerySite(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * {@return the short name of this query site, as displayed in the debug screen}
+	 */
+	public @NotNull String getName() {
+		return this.name;
+	}
+}
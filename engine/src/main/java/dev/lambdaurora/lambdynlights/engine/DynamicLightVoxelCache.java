@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of LambDynamicLights.
+ *
+ * Licensed under the Lambda License. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.lambdynlights.engine;
+
+import dev.lambdaurora.lambdynlights.engine.lookup.FixedPointLightLevels;
+import dev.lambdaurora.lambdynlights.engine.lookup.SpatialLookup;
+import dev.lambdaurora.lambdynlights.engine.lookup.SpatialLookupCounters;
+import it.unimi.dsi.fastutil.HashCommon;
+
+import java.util.Arrays;
+
+/**
+ * Represents a cache of the dynamic light levels of whole cells, rasterized the first time a block of the cell is queried.
+ * <p>
+ * The cache is direct-mapped with a fixed amount of cells, so its memory is bounded,
+ * and a cell is only valid for the generation of the spatial lookup it has been rasterized from.
+ * <p>
+ * Light levels are stored in their {@linkplain FixedPointLightLevels encoded form}, which keeps everything needed to pack them in a lightmap exactly.
+ *
+ * @author LambdAurora
+ * @version 4.0.0
+ * @since 4.0.0
+ */
+public final class DynamicLightVoxelCache {
+	/**
+	 * The amount of cells this cache holds, must be a power of two.
+	 */
+	private static final int CELLS = 64;
+	private static final int CELL_VOLUME = 8 * 8 * 8;
+
+	private final long[] cellKeys = new long[CELLS];
+	private final long[] generations = new long[CELLS];
+	private final short[] voxels = new short[CELLS * CELL_VOLUME];
+	long hits = 0;
+	long misses = 0;
+
+	DynamicLightVoxelCache() {
+		Arrays.fill(this.generations, -1);
+	}
+
+	/**
+	 * Returns the encoded dynamic light level at the specified position, rasterizing its cell if needed.
+	 *
+	 * @param lookup the spatial lookup to rasterize from
+	 * @param counters the counters of the querying thread
+	 * @param x the X-coordinate of the block
+	 * @param y the Y-coordinate of the block
+	 * @param z the Z-coordinate of the block
+	 * @return the encoded dynamic light level
+	 */
+	int get(SpatialLookup lookup, SpatialLookupCounters counters, int x, int y, int z) {
+		int cellX = DynamicLightingEngine.positionToCell(x);
+		int cellY = DynamicLightingEngine.positionToCell(y);
+		int cellZ = DynamicLightingEngine.positionToCell(z);
+		long key = DynamicLightingEngine.cellKey(cellX, cellY, cellZ);
+		int slot = (int) HashCommon.mix(key) & (CELLS - 1);
+		int offset = slot * CELL_VOLUME;
+		// Read before rasterizing, the generation of a published spatial lookup moves on if its live entries may have changed.
+		long generation = lookup.getGeneration();
+
+		if (this.cellKeys[slot] == key && this.generations[slot] == generation) {
+			this.hits++;
+		} else {
+			this.misses++;
+			lookup.fillDynamicLightLevels(cellX << 3, cellY << 3, cellZ << 3, 8, this.voxels, offset, counters);
+
+			this.cellKeys[slot] = key;
+			this.generations[slot] = generation;
+		}
+
+		// Same layout as SpatialLookup#fillDynamicLightLevels.
+		return this.voxels[offset + (((y & 7) << 3 | (z & 7)) << 3 | (x & 7))];
+	}
+
+}
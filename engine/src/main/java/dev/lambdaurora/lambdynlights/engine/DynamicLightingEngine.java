@@ -0,0 +1,1386 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of LambDynamicLights.
+ *
+ * Licensed under the Lambda License. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.lambdynlights.engine;
+
+import dev.lambdaurora.lambdynlights.engine.lookup.FixedPointLightLevels;
+import dev.lambdaurora.lambdynlights.engine.lookup.SpatialLookup;
+import dev.lambdaurora.lambdynlights.engine.lookup.SpatialLookupCounters;
+import dev.lambdaurora.lambdynlights.engine.lookup.SpatialLookupEntry;
+import dev.lambdaurora.lambdynlights.engine.lookup.SpatialLookupLayout;
+import dev.lambdaurora.lambdynlights.engine.lookup.SpatialLookupSink;
+import dev.lambdaurora.lambdynlights.engine.source.DynamicLightSource;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Represents the dynamic lighting engine.
+ *
+ * @author LambdAurora, Akarys
+ * @version 4.0.0
+ * @since 3.1.0
+ */
+public final class DynamicLightingEngine {
+	public static final double MAX_RADIUS = 7.75;
+	public static final double MAX_RADIUS_SQUARED = MAX_RADIUS * MAX_RADIUS;
+	public static final int CELL_SIZE = (int) Math.ceil(MAX_RADIUS);
+	/**
+	 * The capacity the spatial lookup starts with, it grows as needed up to the {@linkplain DynamicLightingSettings#getMaxLightEntries() configured limit}.
+	 */
+	private static final int INITIAL_CAPACITY = 1024;
+	/**
+	 * The ratio of the capacity that can be occupied before the spatial lookup grows.
+	 */
+	private static final float LOAD_FACTOR = .75f;
+	private static final int CELL_KEY_XZ_BITS = 26;
+	private static final int CELL_KEY_Y_BITS = 12;
+	private static final long CELL_KEY_XZ_MASK = (1L << CELL_KEY_XZ_BITS) - 1;
+	private static final long CELL_KEY_Y_MASK = (1L << CELL_KEY_Y_BITS) - 1;
+	private static final int CELL_KEY_Z_OFFSET = CELL_KEY_Y_BITS;
+	private static final int CELL_KEY_X_OFFSET = CELL_KEY_Y_BITS + CELL_KEY_XZ_BITS;
+	/**
+	 * The number of spatial lookup computations the latency histograms are gathered over before being published.
+	 */
+	private static final int LATENCY_WINDOW = 100;
+	/**
+	 * One in this many queries of each thread gets its latency recorded, the others skip timing entirely.
+	 */
+	private static final int QUERY_SAMPLE_INTERVAL = 64;
+	private static final DynamicLightQuerySite[] QUERY_SITES = DynamicLightQuerySite.values();
+	private static final Comparator<BinnedSource> ADMISSION_ORDER = (a, b) -> Double.compare(b.priority, a.priority);
+
+	/**
+	 * The published spatial lookup, which is never modified.
+	 * <p>
+	 * It is read without any lock by the chunk builder threads, so it is published through a single volatile write.
+	 */
+	private volatile SpatialLookup lookup = new SpatialLookup(INITIAL_CAPACITY, SpatialLookupLayout.NEIGHBOR_PROBES);
+	/**
+	 * The spatial lookup the next computation is built into before it is published.
+	 */
+	private SpatialLookup backLookup = new SpatialLookup(INITIAL_CAPACITY, SpatialLookupLayout.NEIGHBOR_PROBES);
+	/**
+	 * The slots of the threads which queried the spatial lookup, used to know whether the back spatial lookup is still being read.
+	 * The slots of terminated threads are removed after each computation.
+	 */
+	private final List<ReaderSlot> readerSlots = new CopyOnWriteArrayList<>();
+	private final ThreadLocal<ReaderSlot> readerSlot = ThreadLocal.withInitial(() -> {
+		var slot = new ReaderSlot(Thread.currentThread());
+		this.readerSlots.add(slot);
+		return slot;
+	});
+	private long generation = 0;
+	private long voxelCacheHits = 0;
+	private long voxelCacheMisses = 0;
+	private long lastVoxelCacheHits = 0;
+	private long lastVoxelCacheMisses = 0;
+	private final long[] queryTotals = new long[QUERY_SITES.length];
+	private final long[] cellProbeTotals = new long[QUERY_SITES.length];
+	private final long[] evaluatedLightTotals = new long[QUERY_SITES.length];
+	private final long[] lastQueryCounts = new long[QUERY_SITES.length];
+	private final long[] lastCellProbeCounts = new long[QUERY_SITES.length];
+	private final long[] lastEvaluatedLightCounts = new long[QUERY_SITES.length];
+	private List<ThreadQueryCount> lastThreadQueryCounts = List.of();
+	private final LatencyHistogram computeLatencies = new LatencyHistogram();
+	private final LatencyHistogram queryLatencies = new LatencyHistogram();
+	private final LatencyHistogram sectionFillLatencies = new LatencyHistogram();
+	private LatencyHistogram.Snapshot lastComputeLatencies = LatencyHistogram.Snapshot.EMPTY;
+	private LatencyHistogram.Snapshot lastQueryLatencies = LatencyHistogram.Snapshot.EMPTY;
+	private LatencyHistogram.Snapshot lastSectionFillLatencies = LatencyHistogram.Snapshot.EMPTY;
+	private int latencyWindowComputations = 0;
+	private int entryLimit = 0;
+	private SpatialLookupLayout layout = SpatialLookupLayout.NEIGHBOR_PROBES;
+	private int lastEntryCount = 0;
+	private int lastRebinnedCount = 0;
+	private int lastDroppedCount = 0;
+	private int lastEvictedSourceCount = 0;
+	private final DynamicLightingSettings settings;
+
+	/**
+	 * The light sources currently tracked by the spatial lookup, alongside the entries they were split into.
+	 */
+	private final Object2ObjectOpenHashMap<DynamicLightSource, BinnedSource> binnedSources = new Object2ObjectOpenHashMap<>();
+	private final List<BinnedSource> binnedSourcePool = new ArrayList<>();
+	private final List<BinnedSource> changedSources = new ArrayList<>();
+	private final List<BinnedSource> refreshedSources = new ArrayList<>();
+	private final ObjectArrayList<BinnedSource> admissionOrder = new ObjectArrayList<>();
+	private int currentStamp = 0;
+	private boolean requiresFullRebuild = true;
+
+	public DynamicLightingEngine(DynamicLightingSettings settings) {
+		this.settings = settings;
+	}
+
+	/**
+	 * Returns the dynamic light level at the specified position.
+	 * <p>
+	 * This method is lock-free and may be called from any thread,
+	 * it never blocks and never waits for the spatial lookup to be computed.
+	 * <p>
+	 * The light level is {@linkplain FixedPointLightLevels#decode(int) decoded} from its encoded form,
+	 * so it packs in lightmaps exactly like the cached and section light levels.
+	 *
+	 * @param x the X-coordinate of the block
+	 * @param y the Y-coordinate of the block
+	 * @param z the Z-coordinate of the block
+	 * @param site where the query comes from
+	 * @return the dynamic light level at the specified position
+	 */
+	public double getDynamicLightLevel(int x, int y, int z, @NotNull DynamicLightQuerySite site) {
+		return this.getDynamicLightLevel(x, y, z, 0, site);
+	}
+
+	/**
+	 * Returns the dynamic light level at the specified position if it is above the given threshold,
+	 * which allows to skip more of the light sources which cannot light up the position enough.
+	 * <p>
+	 * This method is lock-free and may be called from any thread.
+	 *
+	 * @param x the X-coordinate of the block
+	 * @param y the Y-coordinate of the block
+	 * @param z the Z-coordinate of the block
+	 * @param threshold the light level below which the dynamic light level is not needed, usually the block light level
+	 * @param site where the query comes from
+	 * @return the dynamic light level at the specified position if it is above the threshold,
+	 * or a value which is not above the threshold otherwise
+	 */
+	public double getDynamicLightLevel(int x, int y, int z, double threshold, @NotNull DynamicLightQuerySite site) {
+		if (!this.settings.isDynamicLightingEnabled()) {
+			return 0;
+		}
+
+		var slot = this.readerSlot.get();
+		long startTime = slot.sampleQuery(site) ? System.nanoTime() : 0;
+
+		try {
+			// Dropping the remainder of the threshold keeps every light level above it beating it.
+			int encodedThreshold = FixedPointLightLevels.encode(Math.max(0, Math.min(threshold, 15))) & ~1;
+			int encoded = this.pin(slot).getDynamicLightLevel(x, y, z, encodedThreshold, slot.lookupCounters[site.ordinal()]);
+			return FixedPointLightLevels.decode(encoded);
+		} finally {
+			slot.pinned = null;
+			this.recordQueryLatency(startTime);
+		}
+	}
+
+	/**
+	 * Returns the encoded dynamic light level at the specified position, using the {@linkplain DynamicLightVoxelCache voxel cache}
+	 * of the calling thread.
+	 * <p>
+	 * This is meant for positions which get queried many times per frame, such as smooth lighting corners and entities:
+	 * the light levels of a whole cell are computed the first time one of its blocks is queried,
+	 * and the next queries of the cell are a single array read until a new spatial lookup is published.
+	 * <p>
+	 * This method is lock-free and may be called from any thread.
+	 *
+	 * @param x the X-coordinate of the block
+	 * @param y the Y-coordinate of the block
+	 * @param z the Z-coordinate of the block
+	 * @param site where the query comes from
+	 * @return the {@linkplain FixedPointLightLevels encoded} dynamic light level at the specified position
+	 */
+	public int getCachedDynamicLightLevel(int x, int y, int z, @NotNull DynamicLightQuerySite site) {
+		if (!this.settings.isDynamicLightingEnabled()) {
+			return 0;
+		}
+
+		var slot = this.readerSlot.get();
+		long startTime = slot.sampleQuery(site) ? System.nanoTime() : 0;
+
+		try {
+			return slot.voxelCache().get(this.pin(slot), slot.lookupCounters[site.ordinal()], x, y, z);
+		} finally {
+			slot.pinned = null;
+			this.recordQueryLatency(startTime);
+		}
+	}
+
+	/**
+	 * Returns the dynamic light level at the specified position, using the light levels of its whole chunk section.
+	 * <p>
+	 * This is meant for chunk section rebuilds which query every block of a section:
+	 * the light levels of the section are computed at once the first time one of its blocks is queried,
+	 * and are then reused by the calling thread until another section is queried
+	 * or the spatial lookup moves to a new {@linkplain SpatialLookup#getGeneration() generation}.
+	 * <p>
+	 * This method is lock-free and may be called from any thread.
+	 *
+	 * @param x the X-coordinate of the block
+	 * @param y the Y-coordinate of the block
+	 * @param z the Z-coordinate of the block
+	 * @param site where the query comes from
+	 * @return the {@linkplain FixedPointLightLevels encoded} dynamic light level at the specified position
+	 */
+	public int getSectionDynamicLightLevel(int x, int y, int z, @NotNull DynamicLightQuerySite site) {
+		if (!this.settings.isDynamicLightingEnabled()) {
+			return 0;
+		}
+
+		var slot = this.readerSlot.get();
+		slot.queries[site.ordinal()]++;
+
+		var levels = slot.sectionLevels();
+
+		if (!levels.contains(x, y, z) || levels.generation != this.lookup.getGeneration()) {
+			this.fillSectionLightLevels(
+					positionToSection(x), positionToSection(y), positionToSection(z),
+					levels, site
+			);
+		}
+
+		return levels.get(x, y, z);
+	}
+
+	/**
+	 * Computes the dynamic light levels of the given chunk section and of its margin in a single pass.
+	 *
+	 * @param sectionX the X-coordinate of the chunk section
+	 * @param sectionY the Y-coordinate of the chunk section
+	 * @param sectionZ the Z-coordinate of the chunk section
+	 * @param levels the light levels to fill
+	 * @param site where the query comes from
+	 */
+	public void fillSectionLightLevels(
+			int sectionX, int sectionY, int sectionZ, @NotNull SectionDynamicLightLevels levels, @NotNull DynamicLightQuerySite site
+	) {
+		levels.originX = (sectionX << 4) - SectionDynamicLightLevels.MARGIN;
+		levels.originY = (sectionY << 4) - SectionDynamicLightLevels.MARGIN;
+		levels.originZ = (sectionZ << 4) - SectionDynamicLightLevels.MARGIN;
+
+		var slot = this.readerSlot.get();
+		long startTime = System.nanoTime();
+
+		try {
+			var lookup = this.pin(slot);
+			// Read before filling, the generation of a published spatial lookup moves on if its live entries may have changed.
+			long generation = lookup.getGeneration();
+			lookup.fillDynamicLightLevels(
+					levels.originX, levels.originY, levels.originZ, SectionDynamicLightLevels.SIZE, levels.levels, 0,
+					slot.lookupCounters[site.ordinal()]
+			);
+			levels.generation = generation;
+		} finally {
+			slot.pinned = null;
+			this.sectionFillLatencies.record(System.nanoTime() - startTime);
+		}
+	}
+
+	/**
+	 * Records the latency of a query if it has been sampled.
+	 *
+	 * @param startTime the time the query started at, or {@code 0} if the query has not been sampled
+	 */
+	private void recordQueryLatency(long startTime) {
+		if (startTime != 0) {
+			this.queryLatencies.record(System.nanoTime() - startTime);
+		}
+	}
+
+	/**
+	 * Pins the published spatial lookup so that it does not get reused as the back spatial lookup while it is being read.
+	 * <p>
+	 * The pin must be cleared once done reading.
+	 *
+	 * @param slot the slot of the current thread
+	 * @return the pinned spatial lookup
+	 */
+	private SpatialLookup pin(ReaderSlot slot) {
+		var lookup = this.lookup;
+
+		// Make sure the spatial lookup has not been replaced before the pin became visible.
+		SpatialLookup current;
+		while (true) {
+			slot.pinned = lookup;
+			current = this.lookup;
+
+			if (current == lookup) return lookup;
+			lookup = current;
+		}
+	}
+
+	/**
+	 * {@return the distance from a point light of the given luminance at which its light falls to zero, in blocks}
+	 * <p>
+	 * Only the blocks whose center is strictly closer than this radius to the point light are lit by it.
+	 *
+	 * @param luminance the luminance of the point light
+	 */
+	public static double getLightRadius(int luminance) {
+		return Math.max(luminance, 0) / 15. * MAX_RADIUS;
+	}
+
+	/**
+	 * {@return the cell key at the given block position}
+	 *
+	 * @param x the X block coordinate
+	 * @param y the Y block coordinate
+	 * @param z the Z block coordinate
+	 */
+	public static long cellKeyAt(int x, int y, int z) {
+		return cellKey(
+				positionToCell(x),
+				positionToCell(y),
+				positionToCell(z)
+		);
+	}
+
+	/**
+	 * {@return the cell coordinate of the given block position}
+	 *
+	 * @param coordinate the block position coordinate
+	 */
+	public static int positionToCell(int coordinate) {
+		// Equivalent to coordinate / CELL_SIZE as long as CELL_SIZE is equals to 8.
+		return coordinate >> 3;
+	}
+
+	/**
+	 * {@return the chunk section coordinate of the given block position}
+	 *
+	 * @param coordinate the block position coordinate
+	 */
+	public static int positionToSection(int coordinate) {
+		return coordinate >> 4;
+	}
+
+	/**
+	 * Packs the given cell coordinates into a cell key.
+	 * <p>
+	 * Unlike a hash, the packing is exact: two distinct cells will never share the same key.
+	 *
+	 * @param cellX the cell X-coordinate
+	 * @param cellY the cell Y-coordinate
+	 * @param cellZ the cell Z-coordinate
+	 * @return the cell key
+	 */
+	public static long cellKey(int cellX, int cellY, int cellZ) {
+		// Same packing as Minecraft block positions: 26 bits for X and Z, 12 bits for Y.
+		// Cell coordinates are block coordinates divided by 8, so they always fit.
+		return ((long) cellX & CELL_KEY_XZ_MASK) << CELL_KEY_X_OFFSET
+				| ((long) cellY & CELL_KEY_Y_MASK)
+				| ((long) cellZ & CELL_KEY_XZ_MASK) << CELL_KEY_Z_OFFSET;
+	}
+
+	/**
+	 * {@return the cell X-coordinate packed in the given cell key}
+	 *
+	 * @param cellKey the cell key
+	 */
+	public static int unpackCellKeyX(long cellKey) {
+		return (int) (cellKey << 64 - CELL_KEY_X_OFFSET - CELL_KEY_XZ_BITS >> 64 - CELL_KEY_XZ_BITS);
+	}
+
+	/**
+	 * {@return the cell Y-coordinate packed in the given cell key}
+	 *
+	 * @param cellKey the cell key
+	 */
+	public static int unpackCellKeyY(long cellKey) {
+		return (int) (cellKey << 64 - CELL_KEY_Y_BITS >> 64 - CELL_KEY_Y_BITS);
+	}
+
+	/**
+	 * {@return the cell Z-coordinate packed in the given cell key}
+	 *
+	 * @param cellKey the cell key
+	 */
+	public static int unpackCellKeyZ(long cellKey) {
+		return (int) (cellKey << 64 - CELL_KEY_Z_OFFSET - CELL_KEY_XZ_BITS >> 64 - CELL_KEY_XZ_BITS);
+	}
+
+	/**
+	 * Computes the spatial lookup given the light sources.
+	 * <p>
+	 * The spatial lookup will allow for a very quick and efficient lookup of relevant light sources at a given position.
+	 * <p>
+	 * The spatial lookup is updated incrementally whenever possible: only the light sources which got added, removed,
+	 * or whose cells changed since the last computation are re-binned, other cells are left untouched.
+	 * Light sources with {@linkplain DynamicLightSource#hasLivePointLights() live point lights} are refreshed in place
+	 * whenever they are {@linkplain DynamicLightSource#shouldRefreshLivePointLights() due to}.
+	 * <p>
+	 * The positions and luminance of the light sources are captured by this computation:
+	 * queries only ever see the published snapshot, which is replaced as a whole once the computation is done.
+	 * Entries which are not point lights are evaluated live instead, so every computation moves the published snapshot
+	 * to a new {@linkplain SpatialLookup#getGeneration() generation} while such entries are binned,
+	 * as their light may have changed without them leaving their cells.
+	 *
+	 * @param lightSources the light sources to compute into a spatial lookup
+	 * @param cameraX the camera X-coordinate, used to prioritize light sources if they do not all fit
+	 * @param cameraY the camera Y-coordinate, used to prioritize light sources if they do not all fit
+	 * @param cameraZ the camera Z-coordinate, used to prioritize light sources if they do not all fit
+	 */
+	public void computeSpatialLookup(
+			Collection<? extends DynamicLightSource> lightSources, double cameraX, double cameraY, double cameraZ
+	) {
+		var event = new ComputeSpatialLookupEvent();
+		event.begin();
+		long startTime = System.nanoTime();
+
+		if (this.entryLimit != this.settings.getMaxLightEntries() || this.layout != this.settings.getLookupLayout()) {
+			this.requiresFullRebuild = true;
+		}
+
+		event.fullRebuild = this.requiresFullRebuild || !this.updateSpatialLookup(lightSources);
+		if (event.fullRebuild) {
+			this.rebuildSpatialLookup(lightSources, cameraX, cameraY, cameraZ);
+		}
+
+		event.end();
+		if (event.shouldCommit()) {
+			event.lightSources = lightSources.size();
+			event.rebinned = this.lastRebinnedCount;
+			event.entries = this.lastEntryCount;
+			event.evicted = this.lastEvictedSourceCount;
+			event.commit();
+		}
+
+		this.updateVoxelCacheStats();
+		this.updateQueryStats();
+		this.removeDeadReaderSlots();
+
+		this.computeLatencies.record(System.nanoTime() - startTime);
+		this.updateLatencyWindow();
+	}
+
+	/**
+	 * Fully rebuilds the spatial lookup from the given light sources.
+	 * <p>
+	 * This is a two-pass counting sort: the first pass splits every light source and counts the entries of each cell,
+	 * then the cells are given consecutive ranges of the storage, and the second pass scatters the entries into them.
+	 * Everything is written into preallocated storage, which is only resized if the amount of entries went past the load factor.
+	 * <p>
+	 * If the light sources do not all fit within the {@linkplain DynamicLightingSettings#getMaxLightEntries() configured limit},
+	 * they are admitted by decreasing {@linkplain DynamicLightSource#getDynamicLightPriority(double, double, double) priority}
+	 * and the remaining ones are evicted.
+	 *
+	 * @param lightSources the light sources to compute into a spatial lookup
+	 * @param cameraX the camera X-coordinate
+	 * @param cameraY the camera Y-coordinate
+	 * @param cameraZ the camera Z-coordinate
+	 */
+	private void rebuildSpatialLookup(
+			Collection<? extends DynamicLightSource> lightSources, double cameraX, double cameraY, double cameraZ
+	) {
+		int stamp = ++this.currentStamp;
+		this.requiresFullRebuild = false;
+		this.entryLimit = this.settings.getMaxLightEntries();
+		this.layout = this.settings.getLookupLayout();
+
+		for (var binned : this.binnedSources.values()) {
+			// The cells are about to be cleared, nothing has to be removed from them anymore.
+			binned.binnedSplit = null;
+		}
+
+		int requiredEntries = 0;
+		for (var source : lightSources) {
+			var binned = this.getOrCreateBinnedSource(source);
+			binned.stamp = stamp;
+			requiredEntries += binned.split(this.layout).size();
+		}
+
+		this.removeUntrackedSources(stamp);
+		this.ensureCapacity(Math.min(requiredEntries, this.entryLimit));
+		var lookup = this.backLookup;
+		lookup.clear();
+
+		this.admissionOrder.clear();
+		this.admissionOrder.addAll(this.binnedSources.values());
+
+		if (requiredEntries > this.entryLimit) {
+			for (var binned : this.admissionOrder) {
+				binned.priority = binned.source.getDynamicLightPriority(cameraX, cameraY, cameraZ);
+			}
+
+			this.admissionOrder.unstableSort(ADMISSION_ORDER);
+		}
+
+		// First pass, count the entries of each cell.
+		int entryCount = 0;
+		int droppedCount = 0;
+		int evictedCount = 0;
+		for (var binned : this.admissionOrder) {
+			var split = binned.pendingSplit();
+
+			if (entryCount + split.size() > this.entryLimit || !this.countEntries(split)) {
+				// Evicted light sources would otherwise be seen as new at each update,
+				// and their priority changes as the camera moves.
+				this.requiresFullRebuild = true;
+				droppedCount += split.size();
+				evictedCount++;
+				continue;
+			}
+
+			binned.binnedSplit = split;
+			entryCount += split.size();
+		}
+
+		this.admissionOrder.clear();
+
+		lookup.assignRanges();
+
+		// Second pass, scatter the entries into their cells.
+		for (var binned : this.binnedSources.values()) {
+			var split = binned.binnedSplit;
+
+			if (split != null) {
+				for (int i = 0; i < split.size(); i++) {
+					this.addEntry(lookup.findCell(split.cellKeys.getLong(i)), binned, split, i);
+				}
+			}
+		}
+
+		this.publish();
+
+		this.lastEntryCount = entryCount;
+		this.lastRebinnedCount = this.binnedSources.size();
+		this.lastDroppedCount = droppedCount;
+		this.lastEvictedSourceCount = evictedCount;
+	}
+
+	/**
+	 * Incrementally updates the spatial lookup from the given light sources.
+	 * <p>
+	 * Light sources which got added, removed, or whose {@linkplain DynamicLightSource#hasSpatialLookupEntriesChanged(it.unimi.dsi.fastutil.longs.LongList) entries changed}
+	 * are moved in place between cells, every other cell is left untouched.
+	 *
+	 * @param lightSources the light sources to compute into a spatial lookup
+	 * @return {@code true} if the spatial lookup has been updated, or {@code false} if it has to be fully rebuilt instead
+	 */
+	private boolean updateSpatialLookup(Collection<? extends DynamicLightSource> lightSources) {
+		int stamp = ++this.currentStamp;
+		this.changedSources.clear();
+		this.refreshedSources.clear();
+		boolean hasLiveEntries = false;
+
+		for (var source : lightSources) {
+			var binned = this.binnedSources.get(source);
+
+			if (binned == null) {
+				binned = this.getOrCreateBinnedSource(source);
+				this.changedSources.add(binned);
+			} else if (source.hasLivePointLights()) {
+				if (source.shouldRefreshLivePointLights()) {
+					var split = binned.split(this.layout);
+
+					if (!split.cellKeys.equals(binned.binnedSplit.cellKeys) || !split.homeKeys.equals(binned.binnedSplit.homeKeys)) {
+						this.changedSources.add(binned);
+					} else if (!split.hasSamePointLights(binned.binnedSplit)) {
+						this.refreshedSources.add(binned);
+					}
+				}
+			} else if (source.hasSpatialLookupEntriesChanged(binned.binnedSplit.sourceCellKeys)) {
+				this.changedSources.add(binned);
+			}
+
+			if (binned.binnedSplit != null && binned.binnedSplit.hasLiveEntries) {
+				hasLiveEntries = true;
+			}
+
+			binned.stamp = stamp;
+		}
+
+		boolean hasRemovedSources = this.binnedSources.size() != lightSources.size();
+		this.lastRebinnedCount = this.changedSources.size();
+
+		if (this.changedSources.isEmpty() && this.refreshedSources.isEmpty() && !hasRemovedSources) {
+			// Nothing moved, the published spatial lookup is still accurate.
+			if (hasLiveEntries) {
+				// But live entries may have changed their light within their cells, which invalidates the cached light levels.
+				this.lookup.setGeneration(++this.generation);
+			}
+
+			return true;
+		}
+
+		var published = this.lookup;
+		var lookup = this.prepareBackLookup(published.getCapacity());
+		// Only the cells changed by the previous computation have to be brought up to date.
+		lookup.replayFrom(published);
+
+		if (hasRemovedSources) {
+			this.removeUntrackedSources(stamp);
+		}
+
+		for (var binned : this.refreshedSources) {
+			if (!this.refreshPointLights(binned)) {
+				this.changedSources.add(binned);
+			}
+		}
+
+		for (var binned : this.changedSources) {
+			if (binned.binnedSplit != null) {
+				this.removeEntries(binned);
+			}
+
+			var split = binned.split(this.layout);
+
+			if (this.lastEntryCount + split.size() > this.getGrowthThreshold()) {
+				// Either the spatial lookup has to grow, or some light sources have to be dropped.
+				return false;
+			}
+
+			for (int i = 0; i < split.size(); i++) {
+				int slot = lookup.findOrInsertCell(split.cellKeys.getLong(i));
+
+				if (slot == -1 || !(split.isPoint(i) ? lookup.reservePoint(slot) : lookup.reserveEntry(slot))) {
+					return false;
+				}
+
+				this.addEntry(slot, binned, split, i);
+			}
+
+			binned.binnedSplit = split;
+			this.lastEntryCount += split.size();
+		}
+
+		this.publish();
+		return true;
+	}
+
+	/**
+	 * Updates in place the point lights of the given binned light source from its pending split, which covers the same cells.
+	 *
+	 * @param binned the binned light source
+	 * @return {@code true} if the point lights have been updated, or {@code false} if the light source has to be re-binned instead
+	 */
+	private boolean refreshPointLights(BinnedSource binned) {
+		var split = binned.pendingSplit();
+		var lookup = this.backLookup;
+		int lastSlot = -1;
+		int index = -1;
+		for (int i = 0; i < split.size(); i++) {
+			if (!split.isPoint(i)) continue;
+
+			int slot = lookup.findCell(split.cellKeys.getLong(i));
+			// Point lights of a same cell are given consecutively, and are interchangeable.
+			index = lookup.findPoint(slot, binned, slot == lastSlot ? index + 1 : -1);
+			lastSlot = slot;
+
+			if (index == -1) {
+				// The point lights were not given consecutively, re-bin the light source instead.
+				return false;
+			}
+
+			lookup.setPoint(slot, index, split.homeKeys.getLong(i), split.x.getDouble(i), split.y.getDouble(i), split.z.getDouble(i), split.luminance.getInt(i));
+		}
+
+		binned.binnedSplit = split;
+		return true;
+	}
+
+	/**
+	 * Gathers the statistics of the voxel caches of all threads since the last computation.
+	 */
+	private void updateVoxelCacheStats() {
+		long hits = 0;
+		long misses = 0;
+
+		for (var slot : this.readerSlots) {
+			var cache = slot.voxelCache;
+
+			if (cache != null) {
+				// Those are not synchronized, they may be slightly off, which is fine for statistics.
+				hits += cache.hits;
+				misses += cache.misses;
+			}
+		}
+
+		this.lastVoxelCacheHits = hits - this.voxelCacheHits;
+		this.lastVoxelCacheMisses = misses - this.voxelCacheMisses;
+		this.voxelCacheHits = hits;
+		this.voxelCacheMisses = misses;
+	}
+
+	/**
+	 * Gathers the query counters of all threads since the last computation, by query site and by thread.
+	 */
+	private void updateQueryStats() {
+		var threadCounts = new ArrayList<ThreadQueryCount>();
+
+		for (int site = 0; site < QUERY_SITES.length; site++) {
+			long queries = 0;
+			long cellProbes = 0;
+			long evaluatedLights = 0;
+
+			for (var slot : this.readerSlots) {
+				// Those are not synchronized, they may be slightly off, which is fine for statistics.
+				queries += slot.queries[site];
+				cellProbes += slot.lookupCounters[site].getCellProbes();
+				evaluatedLights += slot.lookupCounters[site].getEvaluatedLights();
+			}
+
+			this.lastQueryCounts[site] = queries - this.queryTotals[site];
+			this.lastCellProbeCounts[site] = cellProbes - this.cellProbeTotals[site];
+			this.lastEvaluatedLightCounts[site] = evaluatedLights - this.evaluatedLightTotals[site];
+			this.queryTotals[site] = queries;
+			this.cellProbeTotals[site] = cellProbes;
+			this.evaluatedLightTotals[site] = evaluatedLights;
+		}
+
+		for (var slot : this.readerSlots) {
+			long queries = 0;
+			var siteQueries = new long[QUERY_SITES.length];
+
+			for (int site = 0; site < QUERY_SITES.length; site++) {
+				long current = slot.queries[site];
+				siteQueries[site] = current - slot.reportedQueries[site];
+				slot.reportedQueries[site] = current;
+				queries += siteQueries[site];
+			}
+
+			if (queries != 0) {
+				threadCounts.add(new ThreadQueryCount(slot.threadName, queries, siteQueries));
+			}
+		}
+
+		threadCounts.sort(Comparator.comparingLong(ThreadQueryCount::queries).reversed());
+		this.lastThreadQueryCounts = threadCounts;
+	}
+
+	/**
+	 * Removes the slots of the threads which have terminated, so the slots do not pile up as threads come and go.
+	 * <p>
+	 * The counters of a removed slot have already been gathered, and are taken out of the totals
+	 * so the next statistics only account for the remaining slots.
+	 */
+	private void removeDeadReaderSlots() {
+		this.readerSlots.removeIf(slot -> {
+			if (slot.isOwnerAlive()) {
+				return false;
+			}
+
+			var cache = slot.voxelCache;
+			if (cache != null) {
+				this.voxelCacheHits -= cache.hits;
+				this.voxelCacheMisses -= cache.misses;
+			}
+
+			for (int site = 0; site < QUERY_SITES.length; site++) {
+				this.queryTotals[site] -= slot.queries[site];
+				this.cellProbeTotals[site] -= slot.lookupCounters[site].getCellProbes();
+				this.evaluatedLightTotals[site] -= slot.lookupCounters[site].getEvaluatedLights();
+			}
+
+			return true;
+		});
+	}
+
+	/**
+	 * Publishes the latency histograms gathered over the last {@value #LATENCY_WINDOW} spatial lookup computations,
+	 * and starts gathering the next window.
+	 */
+	private void updateLatencyWindow() {
+		if (++this.latencyWindowComputations < LATENCY_WINDOW) {
+			return;
+		}
+
+		this.latencyWindowComputations = 0;
+		this.lastComputeLatencies = this.computeLatencies.snapshotAndReset();
+		this.lastQueryLatencies = this.queryLatencies.snapshotAndReset();
+		this.lastSectionFillLatencies = this.sectionFillLatencies.snapshotAndReset();
+	}
+
+	/**
+	 * Publishes the back spatial lookup, the previously published one becomes the new back spatial lookup.
+	 */
+	private void publish() {
+		var published = this.backLookup;
+		published.setGeneration(++this.generation);
+		this.backLookup = this.lookup;
+		this.lookup = published;
+	}
+
+	/**
+	 * {@return the amount of entries past which the spatial lookup has to be rebuilt}
+	 */
+	private int getGrowthThreshold() {
+		return Math.min(this.entryLimit, (int) (this.lookup.getCapacity() * LOAD_FACTOR));
+	}
+
+	/**
+	 * Resizes the back spatial lookup if it cannot hold the given amount of entries within the load factor,
+	 * or if it is way too large for them.
+	 *
+	 * @param entries the amount of entries the spatial lookup must be able to hold
+	 */
+	private void ensureCapacity(int entries) {
+		int capacity = Math.max(INITIAL_CAPACITY, HashCommon.nextPowerOfTwo((int) Math.ceil(entries / LOAD_FACTOR)));
+		int currentCapacity = this.lookup.getCapacity();
+
+		// Only shrink when far below the current capacity to avoid resizing back and forth.
+		if (capacity <= currentCapacity && capacity >= currentCapacity / 4) {
+			capacity = currentCapacity;
+		}
+
+		// The published spatial lookup stays valid until the new one is published.
+		this.prepareBackLookup(capacity);
+	}
+
+	/**
+	 * Prepares the back spatial lookup to be written into.
+	 * <p>
+	 * The back spatial lookup is the previously published one, it is replaced if it has a different capacity or layout,
+	 * or if a reader which loaded it before it got unpublished is still reading it.
+	 * Readers are never waited for.
+	 *
+	 * @param capacity the capacity the back spatial lookup must have
+	 * @return the back spatial lookup
+	 */
+	private SpatialLookup prepareBackLookup(int capacity) {
+		var lookup = this.backLookup;
+
+		if (lookup.getCapacity() != capacity || lookup.getLayout() != this.layout || this.isPinned(lookup)) {
+			lookup = this.backLookup = new SpatialLookup(capacity, this.layout);
+		}
+
+		return lookup;
+	}
+
+	private boolean isPinned(SpatialLookup lookup) {
+		for (var slot : this.readerSlots) {
+			if (slot.pinned == lookup) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Counts the entries of the given split into the cell table.
+	 *
+	 * @param split the split light source
+	 * @return {@code true} if the entries have been counted, or {@code false} if the cell table is full
+	 */
+	private boolean countEntries(Split split) {
+		var lookup = this.backLookup;
+
+		for (int i = 0; i < split.size(); i++) {
+			int slot = lookup.findOrInsertCell(split.cellKeys.getLong(i));
+
+			if (slot == -1) {
+				// Roll back what was already counted, the cells themselves are harmless.
+				for (int j = 0; j < i; j++) {
+					lookup.uncount(lookup.findCell(split.cellKeys.getLong(j)), split.isPoint(j));
+				}
+
+				return false;
+			}
+
+			lookup.count(slot, split.isPoint(i));
+		}
+
+		return true;
+	}
+
+	/**
+	 * Adds an entry of a split to the given cell, which must have enough room.
+	 *
+	 * @param slot the slot of the cell
+	 * @param binned the binned light source the entry comes from
+	 * @param split the split the entry comes from
+	 * @param i the index of the entry in the split
+	 */
+	private void addEntry(int slot, BinnedSource binned, Split split, int i) {
+		if (split.isPoint(i)) {
+			this.backLookup.addPoint(slot, binned, split.homeKeys.getLong(i), split.x.getDouble(i), split.y.getDouble(i), split.z.getDouble(i), split.luminance.getInt(i));
+		} else {
+			this.backLookup.addEntry(slot, binned, split.entries.get(i));
+		}
+	}
+
+	/**
+	 * Removes the entries of the given binned light source from their cells.
+	 *
+	 * @param binned the binned light source
+	 */
+	private void removeEntries(BinnedSource binned) {
+		var lookup = this.backLookup;
+		var split = binned.binnedSplit;
+
+		for (int i = 0; i < split.size(); i++) {
+			int slot = lookup.findCell(split.cellKeys.getLong(i));
+
+			if (split.isPoint(i)) {
+				lookup.removePoint(slot, binned);
+			} else {
+				lookup.removeEntry(slot, binned, split.entries.get(i));
+			}
+		}
+
+		binned.binnedSplit = null;
+		this.lastEntryCount -= split.size();
+	}
+
+	/**
+	 * Removes the light sources which were not seen during the current computation.
+	 *
+	 * @param stamp the stamp of the current computation
+	 */
+	private void removeUntrackedSources(int stamp) {
+		var it = this.binnedSources.values().iterator();
+
+		while (it.hasNext()) {
+			var binned = it.next();
+
+			if (binned.stamp != stamp) {
+				if (binned.binnedSplit != null) {
+					this.removeEntries(binned);
+				}
+
+				it.remove();
+				binned.release();
+				this.binnedSourcePool.add(binned);
+			}
+		}
+	}
+
+	private BinnedSource getOrCreateBinnedSource(DynamicLightSource source) {
+		var binned = this.binnedSources.get(source);
+
+		if (binned == null) {
+			binned = this.binnedSourcePool.isEmpty()
+					? new BinnedSource()
+					: this.binnedSourcePool.removeLast();
+			binned.source = source;
+			this.binnedSources.put(source, binned);
+		}
+
+		return binned;
+	}
+
+	@VisibleForTesting
+	public boolean hasEntriesAt(int cellX, int cellY, int cellZ) {
+		return this.getEntryCountAt(cellX, cellY, cellZ) != 0;
+	}
+
+	@VisibleForTesting
+	public int getEntryCountAt(int cellX, int cellY, int cellZ) {
+		return this.lookup.getEntryCountAt(cellKey(cellX, cellY, cellZ));
+	}
+
+	@VisibleForTesting
+	public int getLastEntryCount() {
+		return this.lastEntryCount;
+	}
+
+	/**
+	 * {@return the amount of entries the spatial lookup is currently sized for}
+	 */
+	public int getCapacity() {
+		return this.lookup.getCapacity();
+	}
+
+	/**
+	 * {@return the number of entries which did not fit in the spatial lookup during the last full rebuild}
+	 */
+	public int getLastDroppedCount() {
+		return this.lastDroppedCount;
+	}
+
+	/**
+	 * {@return the number of light sources which got evicted from the spatial lookup during the last full rebuild}
+	 */
+	public int getLastEvictedSourceCount() {
+		return this.lastEvictedSourceCount;
+	}
+
+	/**
+	 * {@return the number of light sources which got re-binned during the last spatial lookup computation}
+	 */
+	public int getLastRebinnedCount() {
+		return this.lastRebinnedCount;
+	}
+
+	/**
+	 * {@return the number of voxel cache queries between the last two spatial lookup computations}
+	 */
+	public long getLastVoxelCacheQueryCount() {
+		return this.lastVoxelCacheHits + this.lastVoxelCacheMisses;
+	}
+
+	/**
+	 * {@return the ratio of voxel cache queries which did not require rasterizing a cell between the last two spatial lookup computations}
+	 */
+	public float getLastVoxelCacheHitRate() {
+		long queries = this.getLastVoxelCacheQueryCount();
+		return queries == 0 ? 0.f : (float) this.lastVoxelCacheHits / queries;
+	}
+
+	/**
+	 * {@return the latencies of the spatial lookup computations over the last window of {@value #LATENCY_WINDOW} computations}
+	 */
+	public LatencyHistogram.Snapshot getLastComputeLatencies() {
+		return this.lastComputeLatencies;
+	}
+
+	/**
+	 * {@return the latencies of the sampled dynamic light level queries over the last window of {@value #LATENCY_WINDOW} computations}
+	 * <p>
+	 * One in {@value #QUERY_SAMPLE_INTERVAL} queries of each thread is sampled.
+	 */
+	public LatencyHistogram.Snapshot getLastQueryLatencies() {
+		return this.lastQueryLatencies;
+	}
+
+	/**
+	 * {@return the latencies of the chunk section light level fills over the last window of {@value #LATENCY_WINDOW} computations}
+	 */
+	public LatencyHistogram.Snapshot getLastSectionFillLatencies() {
+		return this.lastSectionFillLatencies;
+	}
+
+	/**
+	 * {@return every bucket of the latency histograms of the last window, meant to be logged on demand}
+	 */
+	public String dumpLatencyHistograms() {
+		var builder = new StringBuilder("Dynamic lighting latencies over the last ")
+				.append(LATENCY_WINDOW)
+				.append(" spatial lookup computations:\n");
+
+		this.appendLatencyHistogram(builder, "Compute spatial lookup", this.lastComputeLatencies);
+		this.appendLatencyHistogram(builder, "Query (sampled 1/" + QUERY_SAMPLE_INTERVAL + ")", this.lastQueryLatencies);
+		this.appendLatencyHistogram(builder, "Section fill", this.lastSectionFillLatencies);
+
+		return builder.toString();
+	}
+
+	private void appendLatencyHistogram(StringBuilder builder, String name, LatencyHistogram.Snapshot snapshot) {
+		builder.append(name)
+				.append(": ")
+				.append(snapshot.getCount())
+				.append(" samples ; ")
+				.append(snapshot.toSummaryString())
+				.append('\n');
+		snapshot.appendBuckets(builder);
+	}
+
+	/**
+	 * {@return the number of dynamic light level queries from the given site between the last two spatial lookup computations}
+	 * <p>
+	 * Queries answered from the light levels of a whole chunk section count once per block.
+	 *
+	 * @param site the query site
+	 */
+	public long getLastQueryCount(@NotNull DynamicLightQuerySite site) {
+		return this.lastQueryCounts[site.ordinal()];
+	}
+
+	/**
+	 * {@return the number of non-empty cells probed by the queries from the given site between the last two spatial lookup computations}
+	 *
+	 * @param site the query site
+	 */
+	public long getLastCellProbeCount(@NotNull DynamicLightQuerySite site) {
+		return this.lastCellProbeCounts[site.ordinal()];
+	}
+
+	/**
+	 * {@return the number of point lights and entries evaluated by the queries from the given site between the last two spatial lookup computations}
+	 *
+	 * @param site the query site
+	 */
+	public long getLastEvaluatedLightCount(@NotNull DynamicLightQuerySite site) {
+		return this.lastEvaluatedLightCounts[site.ordinal()];
+	}
+
+	/**
+	 * {@return the number of dynamic light level queries of each thread between the last two spatial lookup computations, by decreasing count}
+	 * <p>
+	 * Each thread count is also broken down by query site.
+	 */
+	public @NotNull List<ThreadQueryCount> getLastThreadQueryCounts() {
+		return this.lastThreadQueryCounts;
+	}
+
+	/**
+	 * Represents the number of dynamic light level queries made by a thread.
+	 *
+	 * @param threadName the name of the thread
+	 * @param queries the number of queries
+	 * @param siteQueries the number of queries by {@linkplain DynamicLightQuerySite#ordinal() query site}
+	 */
+	public record ThreadQueryCount(@NotNull String threadName, long queries, @NotNull long[] siteQueries) {
+		/**
+		 * {@return the number of queries made by the thread from the given site}
+		 *
+		 * @param site the query site
+		 */
+		public long getQueries(@NotNull DynamicLightQuerySite site) {
+			return this.siteQueries[site.ordinal()];
+		}
+	}
+
+	/**
+	 * Represents the spatial lookup a reader thread is currently reading, alongside the state owned by the thread.
+	 */
+	private static final class ReaderSlot {
+		/**
+		 * The thread owning this slot, weakly referenced so a terminated thread is not kept around by its slot.
+		 */
+		private final WeakReference<Thread> owner;
+		private final String threadName;
+		private volatile SpatialLookup pinned;
+		private DynamicLightVoxelCache voxelCache;
+		private SectionDynamicLightLevels sectionLevels;
+		/**
+		 * The queries of the thread by query site, only incremented by the thread.
+		 */
+		private final long[] queries = new long[QUERY_SITES.length];
+		private final SpatialLookupCounters[] lookupCounters = new SpatialLookupCounters[QUERY_SITES.length];
+		/**
+		 * The queries of the thread by query site which have already been reported, only accessed while computing the spatial lookup.
+		 */
+		private final long[] reportedQueries = new long[QUERY_SITES.length];
+
+		ReaderSlot(Thread owner) {
+			this.owner = new WeakReference<>(owner);
+			this.threadName = owner.getName();
+
+			for (int i = 0; i < this.lookupCounters.length; i++) {
+				this.lookupCounters[i] = new SpatialLookupCounters();
+			}
+		}
+
+		/**
+		 * Counts a query from the given site.
+		 *
+		 * @param site the query site
+		 * @return {@code true} if the latency of the query should be recorded, or {@code false} otherwise
+		 */
+		boolean sampleQuery(DynamicLightQuerySite site) {
+			return ++this.queries[site.ordinal()] % QUERY_SAMPLE_INTERVAL == 0;
+		}
+
+		/**
+		 * {@return {@code true} if the thread owning this slot may still query the spatial lookup, or {@code false} otherwise}
+		 */
+		boolean isOwnerAlive() {
+			var thread = this.owner.get();
+			return thread != null && thread.isAlive();
+		}
+
+		SectionDynamicLightLevels sectionLevels() {
+			if (this.sectionLevels == null) {
+				this.sectionLevels = new SectionDynamicLightLevels();
+			}
+
+			return this.sectionLevels;
+		}
+
+		DynamicLightVoxelCache voxelCache() {
+			if (this.voxelCache == null) {
+				this.voxelCache = new DynamicLightVoxelCache();
+			}
+
+			return this.voxelCache;
+		}
+	}
+
+	/**
+	 * Represents the entries a light source got split into.
+	 * <p>
+	 * The entries are kept in reusable lists so that splitting a light source again does not allocate.
+	 * Point lights have a {@code null} entry.
+	 * <p>
+	 * With the {@linkplain SpatialLookupLayout#REPLICATED replicated layout}, the entries are replicated as they are accepted
+	 * into every cell they reach.
+	 */
+	private static final class Split implements SpatialLookupSink {
+		/**
+		 * The margin given to the radius of point lights when replicating them, to account for the single-precision coordinates.
+		 */
+		private static final double REPLICATION_MARGIN = 1e-2;
+
+		/**
+		 * The keys of the cells the entries are stored in.
+		 */
+		private final LongArrayList cellKeys = new LongArrayList();
+		/**
+		 * The keys of the own cells of the entries, which differ from the cells they are stored in if they are replicated.
+		 */
+		private final LongArrayList homeKeys = new LongArrayList();
+		/**
+		 * The keys of the cells as given by the light source, which are not replicated.
+		 */
+		private final LongArrayList sourceCellKeys = new LongArrayList();
+		private final LongOpenHashSet replicatedEntryCells = new LongOpenHashSet();
+		private SpatialLookupEntry lastReplicatedEntry;
+		private SpatialLookupLayout layout = SpatialLookupLayout.NEIGHBOR_PROBES;
+		private final ObjectArrayList<SpatialLookupEntry> entries = new ObjectArrayList<>();
+		private final DoubleArrayList x = new DoubleArrayList();
+		private final DoubleArrayList y = new DoubleArrayList();
+		private final DoubleArrayList z = new DoubleArrayList();
+		private final IntArrayList luminance = new IntArrayList();
+		/**
+		 * {@code true} if some entries are not point lights, and are thus evaluated live, or {@code false} otherwise
+		 */
+		private boolean hasLiveEntries;
+
+		int size() {
+			return this.cellKeys.size();
+		}
+
+		boolean isPoint(int i) {
+			return this.entries.get(i) == null;
+		}
+
+		boolean hasSamePointLights(Split other) {
+			return this.x.equals(other.x) && this.y.equals(other.y) && this.z.equals(other.z)
+					&& this.luminance.equals(other.luminance);
+		}
+
+		void clear() {
+			this.cellKeys.clear();
+			this.homeKeys.clear();
+			this.sourceCellKeys.clear();
+			this.replicatedEntryCells.clear();
+			this.lastReplicatedEntry = null;
+			this.entries.clear();
+			this.x.clear();
+			this.y.clear();
+			this.z.clear();
+			this.luminance.clear();
+			this.hasLiveEntries = false;
+		}
+
+		@Override
+		public void acceptPoint(long cellKey, double x, double y, double z, int luminance) {
+			this.sourceCellKeys.add(cellKey);
+
+			if (this.layout != SpatialLookupLayout.REPLICATED) {
+				this.add(cellKey, cellKey, null, x, y, z, luminance);
+				return;
+			}
+
+			int cellX = unpackCellKeyX(cellKey);
+			int cellY = unpackCellKeyY(cellKey);
+			int cellZ = unpackCellKeyZ(cellKey);
+
+			// The cells of the blocks within the radius, which are always within the cells around the own cell.
+			int minX = Math.max(cellX - 1, positionToCell((int) Math.ceil(x - 0.5 - MAX_RADIUS - REPLICATION_MARGIN)));
+			int minY = Math.max(cellY - 1, positionToCell((int) Math.ceil(y - 0.5 - MAX_RADIUS - REPLICATION_MARGIN)));
+			int minZ = Math.max(cellZ - 1, positionToCell((int) Math.ceil(z - 0.5 - MAX_RADIUS - REPLICATION_MARGIN)));
+			int maxX = Math.min(cellX + 1, positionToCell((int) Math.floor(x - 0.5 + MAX_RADIUS + REPLICATION_MARGIN)));
+			int maxY = Math.min(cellY + 1, positionToCell((int) Math.floor(y - 0.5 + MAX_RADIUS + REPLICATION_MARGIN)));
+			int maxZ = Math.min(cellZ + 1, positionToCell((int) Math.floor(z - 0.5 + MAX_RADIUS + REPLICATION_MARGIN)));
+
+			for (int replicaX = minX; replicaX <= maxX; replicaX++) {
+				for (int replicaY = minY; replicaY <= maxY; replicaY++) {
+					for (int replicaZ = minZ; replicaZ <= maxZ; replicaZ++) {
+						this.add(cellKey(replicaX, replicaY, replicaZ), cellKey, null, x, y, z, luminance);
+					}
+				}
+			}
+		}
+
+		@Override
+		public void accept(long cellKey, @NotNull SpatialLookupEntry entry) {
+			this.sourceCellKeys.add(cellKey);
+			this.hasLiveEntries = true;
+
+			if (this.layout != SpatialLookupLayout.REPLICATED) {
+				this.add(cellKey, cellKey, entry, 0, 0, 0, 0);
+				return;
+			}
+
+			if (entry != this.lastReplicatedEntry) {
+				this.replicatedEntryCells.clear();
+				this.lastReplicatedEntry = entry;
+			}
+
+			int cellX = unpackCellKeyX(cellKey);
+			int cellY = unpackCellKeyY(cellKey);
+			int cellZ = unpackCellKeyZ(cellKey);
+
+			// Entries are seen from all the cells around theirs, an entry spanning multiple cells is only replicated once per cell.
+			for (int replicaX = cellX - 1; replicaX <= cellX + 1; replicaX++) {
+				for (int replicaY = cellY - 1; replicaY <= cellY + 1; replicaY++) {
+					for (int replicaZ = cellZ - 1; replicaZ <= cellZ + 1; replicaZ++) {
+						long replicaKey = cellKey(replicaX, replicaY, replicaZ);
+
+						if (this.replicatedEntryCells.add(replicaKey)) {
+							this.add(replicaKey, cellKey, entry, 0, 0, 0, 0);
+						}
+					}
+				}
+			}
+		}
+
+		private void add(long cellKey, long homeKey, SpatialLookupEntry entry, double x, double y, double z, int luminance) {
+			this.cellKeys.add(cellKey);
+			this.homeKeys.add(homeKey);
+			this.entries.add(entry);
+			this.x.add(x);
+			this.y.add(y);
+			this.z.add(z);
+			this.luminance.add(luminance);
+		}
+	}
+
+	/**
+	 * Represents a light source tracked by the spatial lookup.
+	 * <p>
+	 * Two splits are kept: the one currently in the spatial lookup, and the one the light source is split again into,
+	 * so that its previous entries can still be removed once split again.
+	 */
+	private static final class BinnedSource {
+		private final Split first = new Split();
+		private final Split second = new Split();
+		private DynamicLightSource source;
+		private int stamp;
+		private double priority;
+		/**
+		 * The split currently in the spatial lookup, or {@code null} if this light source is not binned
+		 */
+		private Split binnedSplit;
+
+		/**
+		 * {@return the split which is not currently in the spatial lookup}
+		 */
+		Split pendingSplit() {
+			return this.binnedSplit == this.first ? this.second : this.first;
+		}
+
+		/**
+		 * Splits the light source into the {@linkplain #pendingSplit() pending split}.
+		 *
+		 * @param layout the layout of the spatial lookup
+		 * @return the pending split
+		 */
+		Split split(SpatialLookupLayout layout) {
+			var split = this.pendingSplit();
+			split.clear();
+			split.layout = layout;
+			this.source.splitIntoDynamicLightEntries(split);
+			return split;
+		}
+
+		void release() {
+			this.first.clear();
+			this.second.clear();
+			this.source = null;
+			this.binnedSplit = null;
+		}
+	}
+}
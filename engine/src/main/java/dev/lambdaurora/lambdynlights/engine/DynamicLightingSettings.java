@@ -0,0 +1,39 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of LambDynamicLights.
+ *
+ * Licensed under the Lambda License. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.lambdynlights.engine;
+
+import dev.lambdaurora.lambdynlights.engine.lookup.SpatialLookupLayout;
+
+/**
+ * Represents the settings the dynamic lighting engine reads every time it computes its spatial lookup or gets queried.
+ * <p>
+ * This allows the engine to be driven without the mod configuration, for example in benchmarks.
+ * In the mod, those settings are given by the mod configuration.
+ *
+ * @author LambdAurora
+ * @version 4.0.0
+ * @since 4.0.0
+ */
+public interface DynamicLightingSettings {
+	/**
+	 * {@return {@code true} if dynamic lighting is enabled, or {@code false} otherwise}
+	 */
+	boolean isDynamicLightingEnabled();
+
+	/**
+	 * {@return the maximum amount of entries the dynamic lighting engine may hold}
+	 */
+	int getMaxLightEntries();
+
+	/**
+	 * {@return the layout of the spatial lookup of the dynamic lighting engine}
+	 */
+	SpatialLookupLayout getLookupLayout();
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of LambDynamicLights.
+ *
+ * Licensed under the Lambda License. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.lambdynlights.engine;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Represents a histogram of latencies in nanoseconds with fixed buckets.
+ * <p>
+ * The buckets are log-linear: every power of two is split into {@value #SUB_BUCKET_COUNT} buckets of equal width,
+ * which bounds the error of the percentiles to 12.5% whatever the magnitude of the latencies.
+ * Recording a latency is a single bucket increment with no allocation, and may be done from any thread.
+ *
+ * @author LambdAurora
+ * @version 4.0.0
+ * @since 4.0.0
+ */
+public final class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKET_COUNT = bucketOf(Long.MAX_VALUE) + 1;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Records the given latency.
+	 *
+	 * @param nanos the latency in nanoseconds
+	 */
+	public void record(long nanos) {
+		if (nanos < 0) nanos = 0;
+
+		this.counts.incrementAndGet(bucketOf(nanos));
+
+		long max = this.max.get();
+		while (nanos > max && !this.max.compareAndSet(max, nanos)) {
+			max = this.max.get();
+		}
+	}
+
+	/**
+	 * Takes a snapshot of the recorded latencies and resets this histogram.
+	 * <p>
+	 * Latencies recorded concurrently end up either in the snapshot or in the next one.
+	 *
+	 * @return the snapshot of the recorded latencies
+	 */
+	public @NotNull Snapshot snapshotAndReset() {
+		var counts = new long[BUCKET_COUNT];
+		long count = 0;
+
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			counts[i] = this.counts.getAndSet(i, 0);
+			count += counts[i];
+		}
+
+		return new Snapshot(counts, count, this.max.getAndSet(0));
+	}
+
+	/**
+	 * {@return the bucket of the given latency}
+	 *
+	 * @param nanos the latency in nanoseconds, which must be positive
+	 */
+	private static int bucketOf(long nanos) {
+		if (nanos < SUB_BUCKET_COUNT) {
+			return (int) nanos;
+		}
+
+		int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+		int subBucket = (int) (nanos >>> exponent - SUB_BUCKET_BITS) & SUB_BUCKET_COUNT - 1;
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+	}
+
+	/**
+	 * {@return the lowest latency of the given bucket}
+	 *
+	 * @param bucket the bucket
+	 */
+	private static long lowestOf(int bucket) {
+		if (bucket < SUB_BUCKET_COUNT) {
+			return bucket;
+		}
+
+		int exponent = bucket / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+		long subBucket = bucket & SUB_BUCKET_COUNT - 1;
+		return (SUB_BUCKET_COUNT | subBucket) << exponent - SUB_BUCKET_BITS;
+	}
+
+	/**
+	 * {@return the highest latency of the given bucket}
+	 *
+	 * @param bucket the bucket
+	 */
+	private static long highestOf(int bucket) {
+		return bucket == BUCKET_COUNT - 1 ? Long.MAX_VALUE : lowestOf(bucket + 1) - 1;
+	}
+
+	/**
+	 * Represents the latencies recorded by a histogram over a window of time.
+	 */
+	public static final class Snapshot {
+		public static final Snapshot EMPTY = new Snapshot(new long[BUCKET_COUNT], 0, 0);
+
+		private final long[] counts;
+		private final long count;
+		private final long max;
+
+		private Snapshot(long[] counts, long count, long max) {
+			this.counts = counts;
+			this.count = count;
+			this.max = max;
+		}
+
+		/**
+		 * {@return the number of recorded latencies}
+		 */
+		public long getCount() {
+			return this.count;
+		}
+
+		/**
+		 * {@return the highest recorded latency in nanoseconds}
+		 */
+		public long getMax() {
+			return this.max;
+		}
+
+		/**
+		 * Returns the latency below which the given ratio of the recorded latencies are.
+		 * <p>
+		 * The latency is the upper bound of the bucket the percentile falls in, so it is never underestimated.
+		 *
+		 * @param ratio the ratio between {@code 0} and {@code 1}, for example {@code 0.99} for the 99th percentile
+		 * @return the percentile in nanoseconds, or {@code 0} if no latency has been recorded
+		 */
+		public long getPercentile(double ratio) {
+			if (this.count == 0) {
+				return 0;
+			}
+
+			long rank = Math.max(1, (long) Math.ceil(ratio * this.count));
+			long seen = 0;
+
+			for (int i = 0; i < this.counts.length; i++) {
+				seen += this.counts[i];
+
+				if (seen >= rank) {
+					return Math.min(highestOf(i), this.max);
+				}
+			}
+
+			return this.max;
+		}
+
+		/**
+		 * {@return the 50th, 95th and 99th percentiles and the maximum of this snapshot, in milliseconds}
+		 */
+		public @NotNull String toSummaryString() {
+			return "p50 %.3fms ; p95 %.3fms ; p99 %.3fms ; max %.3fms".formatted(
+					this.getPercentile(.5) / 1_000_000.f,
+					this.getPercentile(.95) / 1_000_000.f,
+					this.getPercentile(.99) / 1_000_000.f,
+					this.max / 1_000_000.f
+			);
+		}
+
+		/**
+		 * Appends every non-empty bucket of this snapshot to the given builder, one per line.
+		 *
+		 * @param builder the builder to append to
+		 */
+		public void appendBuckets(@NotNull StringBuilder builder) {
+			for (int i = 0; i < this.counts.length; i++) {
+				if (this.counts[i] != 0) {
+					builder.append("  [")
+							.append(lowestOf(i))
+							.append("ns; ")
+							.append(highestOf(i))
+							.append("ns]: ")
+							.append(this.counts[i])
+							.append('\n');
+				}
+			}
+		}
+	}
+}
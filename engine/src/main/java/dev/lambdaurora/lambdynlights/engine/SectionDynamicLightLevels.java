@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of LambDynamicLights.
+ *
+ * Licensed under the Lambda License. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.lambdynlights.engine;
+
+import dev.lambdaurora.lambdynlights.engine.lookup.FixedPointLightLevels;
+
+/**
+ * Represents the dynamic light levels of a whole chunk section, alongside a margin of one block on each side
+ * so that the neighbors sampled by smooth lighting are covered too.
+ * <p>
+ * The light levels are computed in a single pass over the spatial lookup by
+ * {@link DynamicLightingEngine#fillSectionLightLevels(int, int, int, SectionDynamicLightLevels, DynamicLightQuerySite)},
+ * and are the {@linkplain FixedPointLightLevels encoded} light levels computed one block at a time by
+ * {@link DynamicLightingEngine#getDynamicLightLevel(int, int, int, DynamicLightQuerySite)}.
+ *
+ * @author LambdAurora
+ * @version 4.0.0
+ * @since 4.0.0
+ */
+public final class SectionDynamicLightLevels {
+	/**
+	 * The amount of blocks covered around the section on each side.
+	 */
+	public static final int MARGIN = 1;
+	/**
+	 * The amount of blocks covered on each axis.
+	 */
+	public static final int SIZE = 16 + 2 * MARGIN;
+
+	final short[] levels = new short[SIZE * SIZE * SIZE];
+	int originX;
+	int originY;
+	int originZ;
+	/**
+	 * The generation of the spatial lookup these light levels were computed from, or {@code -1} if they have not been computed yet.
+	 */
+	long generation = -1;
+
+	/**
+	 * {@return {@code true} if the given block position is covered by these light levels, or {@code false} otherwise}
+	 *
+	 * @param x the X-coordinate of the block
+	 * @param y the Y-coordinate of the block
+	 * @param z the Z-coordinate of the block
+	 */
+	public boolean contains(int x, int y, int z) {
+		// Relies on unsigned comparison to check both bounds at once.
+		return Integer.compareUnsigned(x - this.originX, SIZE) < 0
+				&& Integer.compareUnsigned(y - this.originY, SIZE) < 0
+				&& Integer.compareUnsigned(z - this.originZ, SIZE) < 0;
+	}
+
+	/**
+	 * Returns the encoded dynamic light level at the specified position, which must be {@linkplain #contains(int, int, int) covered}.
+	 *
+	 * @param x the X-coordinate of the block
+	 * @param y the Y-coordinate of the block
+	 * @param z the Z-coordinate of the block
+	 * @return the encoded dynamic light level at the specified position
+	 */
+	public int get(int x, int y, int z) {
+		return this.levels[index(x - this.originX, y - this.originY, z - this.originZ)];
+	}
+
+	/**
+	 * {@return the index of the given block in the light level array}
+	 *
+	 * @param x the X-coordinate of the block, relative to the origin of the light levels
+	 * @param y the Y-coordinate of the block, relative to the origin of the light levels
+	 * @param z the Z-coordinate of the block, relative to the origin of the light levels
+	 */
+	public static int index(int x, int y, int z) {
+		return (y * SIZE + z) * SIZE + x;
+	}
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of LambDynamicLights.
+ *
+ * Licensed under the Lambda License. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.lambdynlights.engine.lookup;
+
+import dev.lambdaurora.lambdynlights.engine.DynamicLightingEngine;
+
+/**
+ * Provides the fixed-point form of dynamic light levels, and their evaluation without square roots.
+ * <p>
+ * An encoded light level holds everything needed to pack it in a lightmap exactly:
+ * the amount of sixteenths of the light level rounded down, and whether the light level had a remainder.
+ * The encoded light level only ever grows with the light level, so the maximum of encoded light levels
+ * is the encoded maximum light level.
+ * <p>
+ * The encoded light level given by a point light only depends on its luminance and on the squared distance,
+ * and only decreases as the squared distance grows.
+ * For each luminance and each encoded light level, the largest squared distance giving at least that encoded light level
+ * is precomputed, so a point light is evaluated by comparing its squared distance against those thresholds.
+ * The thresholds are searched against the floating-point evaluation itself, so both evaluations are identical.
+ *
+ * @author LambdAurora
+ * @version 4.0.0
+ * @since 4.0.0
+ */
+public final class FixedPointLightLevels {
+	/**
+	 * The maximum encoded light level, which is the encoded light level of {@code 15}.
+	 */
+	public static final int MAX_ENCODED = 15 * 16 * 2;
+	private static final int STRIDE = MAX_ENCODED + 2;
+	/**
+	 * The largest squared distance at which a point light of a given luminance gives at least a given encoded light level,
+	 * indexed by {@code luminance * STRIDE + encoded}, or {@code -1} if it never does.
+	 */
+	private static final double[] THRESHOLDS = new double[16 * STRIDE];
+
+	static {
+		for (int luminance = 0; luminance < 16; luminance++) {
+			THRESHOLDS[luminance * STRIDE] = DynamicLightingEngine.MAX_RADIUS_SQUARED;
+
+			for (int encoded = 1; encoded < STRIDE; encoded++) {
+				THRESHOLDS[luminance * STRIDE + encoded] = findThreshold(luminance, encoded);
+			}
+		}
+	}
+
+	private FixedPointLightLevels() {
+		throw new UnsupportedOperationException("FixedPointLightLevels only contains static definitions.");
+	}
+
+	/**
+	 * Encodes the given dynamic light level.
+	 *
+	 * @param level the dynamic light level, between {@code 0} and {@code 15}
+	 * @return the encoded dynamic light level
+	 */
+	public static int encode(double level) {
+		double sixteenths = level * 16.0;
+		int flooredSixteenths = (int) sixteenths;
+		return flooredSixteenths << 1 | (sixteenths != flooredSixteenths ? 1 : 0);
+	}
+
+	/**
+	 * {@return the given encoded dynamic light level as a light level}
+	 * <p>
+	 * A light level with a remainder is decoded in the middle of its sixteenth, so encoding it gives back the same encoded light level.
+	 *
+	 * @param encoded the encoded dynamic light level
+	 */
+	public static double decode(int encoded) {
+		return ((encoded >> 1) + (encoded & 1) * 0.5) / 16.0;
+	}
+
+	/**
+	 * {@return the amount of sixteenths of the given encoded dynamic light level, rounded down}
+	 * <p>
+	 * This is the value packed in lightmaps.
+	 *
+	 * @param encoded the encoded dynamic light level
+	 */
+	public static int getSixteenths(int encoded) {
+		return encoded >> 1;
+	}
+
+	/**
+	 * {@return the given encoded dynamic light level rounded down to a block light level}
+	 *
+	 * @param encoded the encoded dynamic light level
+	 */
+	public static int getLightLevel(int encoded) {
+		return encoded >> 5;
+	}
+
+	/**
+	 * {@return {@code true} if the given encoded dynamic light level is strictly above the given light level, or {@code false} otherwise}
+	 *
+	 * @param encoded the encoded dynamic light level
+	 * @param level the light level to compare to
+	 */
+	public static boolean isAbove(int encoded, int level) {
+		// The sixteenths rounded up.
+		return (encoded >> 1) + (encoded & 1) > level << 4;
+	}
+
+	/**
+	 * Combines the given encoded dynamic light level with the given lightmap coordinates.
+	 * <p>
+	 * The block light of the lightmap is replaced by the dynamic light level if it is brighter,
+	 * keeping the sixteenths of the dynamic light level for a smoother lighting.
+	 *
+	 * @param encoded the encoded dynamic light level
+	 * @param lightmap the vanilla lightmap coordinates, as {@code skyLevel << 20 | blockLevel << 4}
+	 * @return the modified lightmap coordinates
+	 */
+	public static int applyToLightmap(int encoded, int lightmap) {
+		// Same block light level as LightTexture#block.
+		if (isAbove(encoded, (lightmap & 0xffff) >> 4)) {
+			lightmap &= 0xfff00000;
+			lightmap |= getSixteenths(encoded) & 0x000fffff;
+		}
+
+		return lightmap;
+	}
+
+	/**
+	 * {@return the largest squared distance at which a point light of the given luminance gives more than the given encoded light level,
+	 * or a negative value if it never does}
+	 * <p>
+	 * This allows to reject a point light with a single comparison.
+	 *
+	 * @param luminance the luminance of the point light
+	 * @param encoded the encoded light level to beat
+	 */
+	public static double getBeatingThreshold(int luminance, int encoded) {
+		return THRESHOLDS[luminance * STRIDE + encoded + 1];
+	}
+
+	/**
+	 * Evaluates the encoded light level given by a point light, knowing that it beats the given encoded light level.
+	 *
+	 * @param luminance the luminance of the point light
+	 * @param distanceSquared the squared distance to the point light, at most the {@linkplain #getBeatingThreshold(int, int) beating threshold}
+	 * @param encoded the encoded light level beaten by the point light
+	 * @return the encoded light level given by the point light
+	 */
+	public static int evaluate(int luminance, double distanceSquared, int encoded) {
+		int offset = luminance * STRIDE;
+		// The encoded light level is the largest one whose threshold is not below the squared distance.
+		int low = encoded + 1;
+		int high = luminance << 5;
+
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+
+			if (THRESHOLDS[offset + middle] >= distanceSquared) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+
+		return low;
+	}
+
+	/**
+	 * Evaluates the encoded light level given by a point light with floating-point arithmetic, as {@link SpatialLookupEntry#lightAtPos} does.
+	 *
+	 * @param luminance the luminance of the point light
+	 * @param distanceSquared the squared distance to the point light
+	 * @return the encoded light level
+	 */
+	private static int evaluateFloatingPoint(int luminance, double distanceSquared) {
+		double light = luminance - Math.sqrt(distanceSquared) / DynamicLightingEngine.MAX_RADIUS * 15.;
+		return light > 0 ? encode(light) : 0;
+	}
+
+	private static double findThreshold(int luminance, int encoded) {
+		if (evaluateFloatingPoint(luminance, 0) < encoded) {
+			return -1;
+		}
+
+		// Non-negative doubles are ordered like their bit patterns, search the last one which still gives the encoded light level.
+		long low = 0;
+		long high = Double.doubleToRawLongBits(DynamicLightingEngine.MAX_RADIUS_SQUARED);
+
+		while (low < high) {
+			long middle = (low + high + 1) >>> 1;
+
+			if (evaluateFloatingPoint(luminance, Double.longBitsToDouble(middle)) >= encoded) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+
+		return Double.longBitsToDouble(low);
+	}
+}
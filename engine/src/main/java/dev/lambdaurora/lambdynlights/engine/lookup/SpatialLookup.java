@@ -0,0 +1,1079 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of LambDynamicLights.
+ *
+ * Licensed under the Lambda License. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.lambdynlights.engine.lookup;
+
+import dev.lambdaurora.lambdynlights.engine.DynamicLightingEngine;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Represents the storage of the spatial lookup: an open-addressed table of cells, each cell owning a range of point lights
+ * and a range of other entries.
+ * <p>
+ * Point lights are stored as a structure of arrays, with their coordinates relative to the origin of their cell,
+ * so querying them is a tight scan over primitive arrays.
+ * Other entries, such as the ones of dynamic light behaviors,
+ * are evaluated on a separate slower path.
+ * <p>
+ * Each cell range may have free room so entries can be added to a cell without moving the others,
+ * if a cell is full it is moved at the end of its storage.
+ * <p>
+ * With the {@linkplain SpatialLookupLayout#REPLICATED replicated layout}, point lights and entries are also stored
+ * in the neighboring cells they reach, and a query only reads the cell of the queried position.
+ * A replicated point light keeps its coordinates relative to its own cell alongside the offset to the cell it is stored in,
+ * so light levels are identical with either layout.
+ * <p>
+ * Each cell also keeps bounds of its point lights, the maximum luminance and a bounding sphere,
+ * so queries can skip the cells which cannot beat the light level found so far.
+ * The bounds only grow as point lights are moved or removed, they are tightened again when the spatial lookup is rebuilt.
+ * <p>
+ * A spatial lookup is not safe to modify while it is being queried.
+ * The engine builds into a spare spatial lookup and then publishes it,
+ * so a published spatial lookup is an immutable snapshot of the light sources.
+ * Each spatial lookup keeps track of the cells it changed since it was brought up to date with another,
+ * so the spare spatial lookup is brought up to date by {@linkplain #replayFrom(SpatialLookup) replaying} those cells only.
+ *
+ * @author LambdAurora
+ * @version 4.0.0
+ * @since 4.0.0
+ */
+public final class SpatialLookup {
+	/**
+	 * The key marking an empty slot in the cell table, it cannot be produced by {@link DynamicLightingEngine#cellKey(int, int, int)} for any valid cell.
+	 */
+	private static final long EMPTY_CELL_KEY = Long.MAX_VALUE;
+	/**
+	 * The room given to a cell range which gets created after the ranges have been assigned.
+	 */
+	private static final int NEW_RANGE_CAPACITY = 2;
+	/**
+	 * The margin added to the distance bounds to account for the single-precision coordinates.
+	 */
+	private static final double BOUNDS_EPSILON = 1e-2;
+
+	private final int capacity;
+	private final SpatialLookupLayout layout;
+	private volatile long generation = 0;
+	private final long[] cellKeys;
+	private int cellCount = 0;
+
+	private final int[] pointStarts;
+	private final int[] pointCounts;
+	private final int[] pointCapacities;
+	private final float[] boundsX;
+	private final float[] boundsY;
+	private final float[] boundsZ;
+	/**
+	 * The radius of the bounding sphere of the point lights of each cell, negative if the cell has no point lights.
+	 */
+	private final float[] boundsRadius;
+	private final byte[] maxLuminance;
+	private final float[] pointX;
+	private final float[] pointY;
+	private final float[] pointZ;
+	private final byte[] pointLuminance;
+	/**
+	 * The offset from the origin of the cell a point light is stored in to the origin of its own cell.
+	 */
+	private final byte[] pointShiftX;
+	private final byte[] pointShiftY;
+	private final byte[] pointShiftZ;
+	private final Object[] pointOwners;
+	private int allocatedPoints = 0;
+
+	private final int[] entryStarts;
+	private final int[] entryCounts;
+	private final int[] entryCapacities;
+	private final SpatialLookupEntry[] entries;
+	private final Object[] entryOwners;
+	private int allocatedEntries = 0;
+
+	/**
+	 * The spatial lookup this spatial lookup was last brought up to date with, and the version it had back then,
+	 * or {@code null} if this spatial lookup has been cleared since.
+	 */
+	private SpatialLookup base;
+	private long baseVersion;
+	/**
+	 * Moves on with every change, so a spatial lookup can tell whether it still matches the base of another.
+	 */
+	private long version = 0;
+	/**
+	 * The slots of the cells changed since this spatial lookup was last brought up to date with its base.
+	 */
+	private final IntArrayList touchedCells = new IntArrayList();
+	private final boolean[] touched;
+
+	/**
+	 * Creates a new spatial lookup.
+	 * <p>
+	 * The point storage, the entry storage and the cell table are all twice as large as the capacity:
+	 * each range gets as much free room as it has entries when they are assigned so light sources can move in and out
+	 * without requiring a rebuild, and the cell table load factor never exceeds {@code 0.5}.
+	 *
+	 * @param capacity the amount of entries this spatial lookup is sized for, must be a power of two
+	 * @param layout the layout of this spatial lookup
+	 */
+	public SpatialLookup(int capacity, @NotNull SpatialLookupLayout layout) {
+		this.capacity = capacity;
+		this.layout = layout;
+		int size = capacity * 2;
+
+		this.cellKeys = new long[size];
+		Arrays.fill(this.cellKeys, EMPTY_CELL_KEY);
+
+		this.pointStarts = new int[size];
+		this.pointCounts = new int[size];
+		this.pointCapacities = new int[size];
+		this.boundsX = new float[size];
+		this.boundsY = new float[size];
+		this.boundsZ = new float[size];
+		this.boundsRadius = new float[size];
+		this.maxLuminance = new byte[size];
+		this.pointX = new float[size];
+		this.pointY = new float[size];
+		this.pointZ = new float[size];
+		this.pointLuminance = new byte[size];
+		this.pointShiftX = new byte[size];
+		this.pointShiftY = new byte[size];
+		this.pointShiftZ = new byte[size];
+		this.pointOwners = new Object[size];
+
+		this.entryStarts = new int[size];
+		this.entryCounts = new int[size];
+		this.entryCapacities = new int[size];
+		this.entries = new SpatialLookupEntry[size];
+		this.entryOwners = new Object[size];
+
+		this.touched = new boolean[size];
+	}
+
+	/**
+	 * {@return the amount of entries this spatial lookup is sized for}
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * {@return the layout of this spatial lookup}
+	 */
+	public @NotNull SpatialLookupLayout getLayout() {
+		return this.layout;
+	}
+
+	/**
+	 * {@return the generation of this spatial lookup, which identifies the computation it has been published by}
+	 */
+	public long getGeneration() {
+		return this.generation;
+	}
+
+	/**
+	 * Sets the generation of this spatial lookup, before it gets published.
+	 * <p>
+	 * The generation of a published spatial lookup may also be moved on in place,
+	 * to invalidate the light levels cached from its live entries.
+	 *
+	 * @param generation the generation
+	 */
+	public void setGeneration(long generation) {
+		this.generation = generation;
+	}
+
+	/**
+	 * Clears this spatial lookup of all its cells.
+	 */
+	public void clear() {
+		Arrays.fill(this.cellKeys, EMPTY_CELL_KEY);
+		this.cellCount = 0;
+		Arrays.fill(this.pointOwners, 0, this.allocatedPoints, null);
+		Arrays.fill(this.entries, 0, this.allocatedEntries, null);
+		Arrays.fill(this.entryOwners, 0, this.allocatedEntries, null);
+		this.allocatedPoints = 0;
+		this.allocatedEntries = 0;
+
+		this.base = null;
+		this.version++;
+		this.resetTouchedCells();
+	}
+
+	/**
+	 * Brings this spatial lookup up to date with the given spatial lookup.
+	 * <p>
+	 * If the given spatial lookup was last brought up to date with this one, and this one did not change since,
+	 * only the cells the given spatial lookup changed since then are copied, along with the ranges they moved out of.
+	 * This is the case of the spare spatial lookup of the engine, which is the one published before the given one,
+	 * so bringing it up to date only costs as much as the changes of the previous computation.
+	 * Otherwise, for example once the given spatial lookup has been rebuilt, the whole spatial lookup is {@linkplain #copyFrom(SpatialLookup) copied}.
+	 *
+	 * @param other the spatial lookup to bring this spatial lookup up to date with, must have the same capacity and layout
+	 */
+	public void replayFrom(@NotNull SpatialLookup other) {
+		if (other.base != this || other.baseVersion != this.version) {
+			this.copyFrom(other);
+			return;
+		}
+
+		for (int i = 0; i < other.touchedCells.size(); i++) {
+			this.copyCell(other, other.touchedCells.getInt(i));
+		}
+
+		this.cellCount = other.cellCount;
+		this.allocatedPoints = other.allocatedPoints;
+		this.allocatedEntries = other.allocatedEntries;
+		this.rebase(other);
+	}
+
+	/**
+	 * Copies a cell of the given spatial lookup into this spatial lookup, along with its ranges.
+	 * <p>
+	 * If the ranges of the cell moved, the ranges they moved out of are copied too so no stale owner is left behind.
+	 *
+	 * @param other the spatial lookup to copy the cell from
+	 * @param slot the slot of the cell
+	 */
+	private void copyCell(SpatialLookup other, int slot) {
+		boolean existed = this.cellKeys[slot] != EMPTY_CELL_KEY;
+		int oldPointStart = this.pointStarts[slot];
+		int oldPointCapacity = this.pointCapacities[slot];
+		int oldEntryStart = this.entryStarts[slot];
+		int oldEntryCapacity = this.entryCapacities[slot];
+
+		this.cellKeys[slot] = other.cellKeys[slot];
+		this.pointStarts[slot] = other.pointStarts[slot];
+		this.pointCounts[slot] = other.pointCounts[slot];
+		this.pointCapacities[slot] = other.pointCapacities[slot];
+		this.boundsX[slot] = other.boundsX[slot];
+		this.boundsY[slot] = other.boundsY[slot];
+		this.boundsZ[slot] = other.boundsZ[slot];
+		this.boundsRadius[slot] = other.boundsRadius[slot];
+		this.maxLuminance[slot] = other.maxLuminance[slot];
+		this.entryStarts[slot] = other.entryStarts[slot];
+		this.entryCounts[slot] = other.entryCounts[slot];
+		this.entryCapacities[slot] = other.entryCapacities[slot];
+
+		int pointStart = this.pointStarts[slot];
+		int pointCapacity = this.pointCapacities[slot];
+		System.arraycopy(other.pointX, pointStart, this.pointX, pointStart, pointCapacity);
+		System.arraycopy(other.pointY, pointStart, this.pointY, pointStart, pointCapacity);
+		System.arraycopy(other.pointZ, pointStart, this.pointZ, pointStart, pointCapacity);
+		System.arraycopy(other.pointLuminance, pointStart, this.pointLuminance, pointStart, pointCapacity);
+		System.arraycopy(other.pointShiftX, pointStart, this.pointShiftX, pointStart, pointCapacity);
+		System.arraycopy(other.pointShiftY, pointStart, this.pointShiftY, pointStart, pointCapacity);
+		System.arraycopy(other.pointShiftZ, pointStart, this.pointShiftZ, pointStart, pointCapacity);
+		System.arraycopy(other.pointOwners, pointStart, this.pointOwners, pointStart, pointCapacity);
+
+		if (existed && oldPointStart != pointStart) {
+			System.arraycopy(other.pointOwners, oldPointStart, this.pointOwners, oldPointStart, oldPointCapacity);
+		}
+
+		int entryStart = this.entryStarts[slot];
+		int entryCapacity = this.entryCapacities[slot];
+		System.arraycopy(other.entries, entryStart, this.entries, entryStart, entryCapacity);
+		System.arraycopy(other.entryOwners, entryStart, this.entryOwners, entryStart, entryCapacity);
+
+		if (existed && oldEntryStart != entryStart) {
+			System.arraycopy(other.entries, oldEntryStart, this.entries, oldEntryStart, oldEntryCapacity);
+			System.arraycopy(other.entryOwners, oldEntryStart, this.entryOwners, oldEntryStart, oldEntryCapacity);
+		}
+	}
+
+	/**
+	 * Copies the given spatial lookup into this spatial lookup.
+	 * <p>
+	 * This costs as much as the whole storage in use, {@link #replayFrom(SpatialLookup)} should be preferred.
+	 *
+	 * @param other the spatial lookup to copy, must have the same capacity and layout
+	 */
+	public void copyFrom(@NotNull SpatialLookup other) {
+		if (other.capacity != this.capacity) {
+			throw new IllegalArgumentException("Cannot copy a spatial lookup of capacity " + other.capacity + " into one of capacity " + this.capacity + ".");
+		} else if (other.layout != this.layout) {
+			throw new IllegalArgumentException("Cannot copy a spatial lookup of layout " + other.layout + " into one of layout " + this.layout + ".");
+		}
+
+		System.arraycopy(other.cellKeys, 0, this.cellKeys, 0, this.cellKeys.length);
+		this.cellCount = other.cellCount;
+
+		System.arraycopy(other.pointStarts, 0, this.pointStarts, 0, this.pointStarts.length);
+		System.arraycopy(other.pointCounts, 0, this.pointCounts, 0, this.pointCounts.length);
+		System.arraycopy(other.pointCapacities, 0, this.pointCapacities, 0, this.pointCapacities.length);
+		System.arraycopy(other.boundsX, 0, this.boundsX, 0, this.boundsX.length);
+		System.arraycopy(other.boundsY, 0, this.boundsY, 0, this.boundsY.length);
+		System.arraycopy(other.boundsZ, 0, this.boundsZ, 0, this.boundsZ.length);
+		System.arraycopy(other.boundsRadius, 0, this.boundsRadius, 0, this.boundsRadius.length);
+		System.arraycopy(other.maxLuminance, 0, this.maxLuminance, 0, this.maxLuminance.length);
+		System.arraycopy(other.pointX, 0, this.pointX, 0, other.allocatedPoints);
+		System.arraycopy(other.pointY, 0, this.pointY, 0, other.allocatedPoints);
+		System.arraycopy(other.pointZ, 0, this.pointZ, 0, other.allocatedPoints);
+		System.arraycopy(other.pointLuminance, 0, this.pointLuminance, 0, other.allocatedPoints);
+		System.arraycopy(other.pointShiftX, 0, this.pointShiftX, 0, other.allocatedPoints);
+		System.arraycopy(other.pointShiftY, 0, this.pointShiftY, 0, other.allocatedPoints);
+		System.arraycopy(other.pointShiftZ, 0, this.pointShiftZ, 0, other.allocatedPoints);
+		System.arraycopy(other.pointOwners, 0, this.pointOwners, 0, other.allocatedPoints);
+		if (other.allocatedPoints < this.allocatedPoints) {
+			Arrays.fill(this.pointOwners, other.allocatedPoints, this.allocatedPoints, null);
+		}
+		this.allocatedPoints = other.allocatedPoints;
+
+		System.arraycopy(other.entryStarts, 0, this.entryStarts, 0, this.entryStarts.length);
+		System.arraycopy(other.entryCounts, 0, this.entryCounts, 0, this.entryCounts.length);
+		System.arraycopy(other.entryCapacities, 0, this.entryCapacities, 0, this.entryCapacities.length);
+		System.arraycopy(other.entries, 0, this.entries, 0, other.allocatedEntries);
+		System.arraycopy(other.entryOwners, 0, this.entryOwners, 0, other.allocatedEntries);
+		if (other.allocatedEntries < this.allocatedEntries) {
+			Arrays.fill(this.entries, other.allocatedEntries, this.allocatedEntries, null);
+			Arrays.fill(this.entryOwners, other.allocatedEntries, this.allocatedEntries, null);
+		}
+		this.allocatedEntries = other.allocatedEntries;
+
+		this.rebase(other);
+	}
+
+	/**
+	 * Marks this spatial lookup as just brought up to date with the given spatial lookup.
+	 *
+	 * @param other the spatial lookup this spatial lookup is now identical to
+	 */
+	private void rebase(SpatialLookup other) {
+		this.base = other;
+		this.baseVersion = other.version;
+		this.version++;
+		this.resetTouchedCells();
+	}
+
+	/**
+	 * Marks the given cell as changed.
+	 *
+	 * @param slot the slot of the cell
+	 */
+	private void touch(int slot) {
+		this.version++;
+
+		if (!this.touched[slot]) {
+			this.touched[slot] = true;
+			this.touchedCells.add(slot);
+		}
+	}
+
+	private void resetTouchedCells() {
+		for (int i = 0; i < this.touchedCells.size(); i++) {
+			this.touched[this.touchedCells.getInt(i)] = false;
+		}
+
+		this.touchedCells.clear();
+	}
+
+	/**
+	 * Finds the slot of the given cell in the cell table.
+	 *
+	 * @param key the cell key
+	 * @return the slot of the cell in the cell table, or {@code -1} if the cell is not indexed
+	 */
+	public int findCell(long key) {
+		long[] cellKeys = this.cellKeys;
+		int mask = cellKeys.length - 1;
+		int slot = (int) HashCommon.mix(key) & mask;
+
+		long currentKey;
+		while ((currentKey = cellKeys[slot]) != EMPTY_CELL_KEY) {
+			if (currentKey == key) {
+				return slot;
+			}
+
+			slot = (slot + 1) & mask;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Finds the slot of the given cell in the cell table, or inserts it if it is not indexed yet.
+	 * <p>
+	 * A newly inserted cell has empty ranges.
+	 *
+	 * @param key the cell key
+	 * @return the slot of the cell in the cell table, or {@code -1} if the cell table is full
+	 */
+	public int findOrInsertCell(long key) {
+		int mask = this.cellKeys.length - 1;
+		int slot = (int) HashCommon.mix(key) & mask;
+
+		long currentKey;
+		while ((currentKey = this.cellKeys[slot]) != EMPTY_CELL_KEY) {
+			if (currentKey == key) {
+				return slot;
+			}
+
+			slot = (slot + 1) & mask;
+		}
+
+		if (this.cellCount >= this.capacity) {
+			return -1;
+		}
+
+		this.cellKeys[slot] = key;
+		this.pointStarts[slot] = this.pointCounts[slot] = this.pointCapacities[slot] = 0;
+		this.entryStarts[slot] = this.entryCounts[slot] = this.entryCapacities[slot] = 0;
+		this.resetBounds(slot);
+		this.cellCount++;
+		this.touch(slot);
+		return slot;
+	}
+
+	/**
+	 * Counts one more point light or entry in the given cell, before {@linkplain #assignRanges() ranges are assigned}.
+	 *
+	 * @param slot the slot of the cell
+	 * @param point {@code true} to count a point light, or {@code false} to count an entry
+	 */
+	public void count(int slot, boolean point) {
+		this.touch(slot);
+
+		if (point) {
+			this.pointCounts[slot]++;
+		} else {
+			this.entryCounts[slot]++;
+		}
+	}
+
+	/**
+	 * Reverts a previous {@link #count(int, boolean)}.
+	 *
+	 * @param slot the slot of the cell
+	 * @param point {@code true} to uncount a point light, or {@code false} to uncount an entry
+	 */
+	public void uncount(int slot, boolean point) {
+		this.touch(slot);
+
+		if (point) {
+			this.pointCounts[slot]--;
+		} else {
+			this.entryCounts[slot]--;
+		}
+	}
+
+	/**
+	 * Gives each cell consecutive ranges of the storage from the counted amounts, with as much free room as they have entries.
+	 * <p>
+	 * The ranges are left empty, ready to be filled.
+	 */
+	public void assignRanges() {
+		int pointOffset = 0;
+		int entryOffset = 0;
+
+		for (int slot = 0; slot < this.cellKeys.length; slot++) {
+			if (this.cellKeys[slot] != EMPTY_CELL_KEY) {
+				this.pointStarts[slot] = pointOffset;
+				this.pointCapacities[slot] = this.pointCounts[slot] * 2;
+				this.pointCounts[slot] = 0;
+				pointOffset += this.pointCapacities[slot];
+
+				this.entryStarts[slot] = entryOffset;
+				this.entryCapacities[slot] = this.entryCounts[slot] * 2;
+				this.entryCounts[slot] = 0;
+				entryOffset += this.entryCapacities[slot];
+			}
+		}
+
+		this.allocatedPoints = pointOffset;
+		this.allocatedEntries = entryOffset;
+		this.version++;
+	}
+
+	/**
+	 * Ensures the given cell has room for one more point light, moving its range at the end of the storage if needed.
+	 *
+	 * @param slot the slot of the cell
+	 * @return {@code true} if the cell has room for one more point light, or {@code false} if the storage is full
+	 */
+	public boolean reservePoint(int slot) {
+		int count = this.pointCounts[slot];
+
+		if (count < this.pointCapacities[slot]) {
+			return true;
+		}
+
+		int capacity = Math.max(NEW_RANGE_CAPACITY, count * 2);
+
+		if (this.allocatedPoints + capacity > this.pointOwners.length) {
+			return false;
+		}
+
+		int oldStart = this.pointStarts[slot];
+		int newStart = this.allocatedPoints;
+
+		System.arraycopy(this.pointX, oldStart, this.pointX, newStart, count);
+		System.arraycopy(this.pointY, oldStart, this.pointY, newStart, count);
+		System.arraycopy(this.pointZ, oldStart, this.pointZ, newStart, count);
+		System.arraycopy(this.pointLuminance, oldStart, this.pointLuminance, newStart, count);
+		System.arraycopy(this.pointShiftX, oldStart, this.pointShiftX, newStart, count);
+		System.arraycopy(this.pointShiftY, oldStart, this.pointShiftY, newStart, count);
+		System.arraycopy(this.pointShiftZ, oldStart, this.pointShiftZ, newStart, count);
+		System.arraycopy(this.pointOwners, oldStart, this.pointOwners, newStart, count);
+		Arrays.fill(this.pointOwners, oldStart, oldStart + count, null);
+
+		this.pointStarts[slot] = newStart;
+		this.pointCapacities[slot] = capacity;
+		this.allocatedPoints += capacity;
+		this.touch(slot);
+		return true;
+	}
+
+	/**
+	 * Ensures the given cell has room for one more entry, moving its range at the end of the storage if needed.
+	 *
+	 * @param slot the slot of the cell
+	 * @return {@code true} if the cell has room for one more entry, or {@code false} if the storage is full
+	 */
+	public boolean reserveEntry(int slot) {
+		int count = this.entryCounts[slot];
+
+		if (count < this.entryCapacities[slot]) {
+			return true;
+		}
+
+		int capacity = Math.max(NEW_RANGE_CAPACITY, count * 2);
+
+		if (this.allocatedEntries + capacity > this.entries.length) {
+			return false;
+		}
+
+		int oldStart = this.entryStarts[slot];
+		int newStart = this.allocatedEntries;
+
+		System.arraycopy(this.entries, oldStart, this.entries, newStart, count);
+		System.arraycopy(this.entryOwners, oldStart, this.entryOwners, newStart, count);
+		Arrays.fill(this.entries, oldStart, oldStart + count, null);
+		Arrays.fill(this.entryOwners, oldStart, oldStart + count, null);
+
+		this.entryStarts[slot] = newStart;
+		this.entryCapacities[slot] = capacity;
+		this.allocatedEntries += capacity;
+		this.touch(slot);
+		return true;
+	}
+
+	/**
+	 * Adds a point light to the given cell, which must have enough room.
+	 *
+	 * @param slot the slot of the cell
+	 * @param owner the owner of the point light
+	 * @param homeKey the key of the own cell of the point light, which differs from the cell it is stored in if it is replicated
+	 * @param x the X-coordinate of the point light
+	 * @param y the Y-coordinate of the point light
+	 * @param z the Z-coordinate of the point light
+	 * @param luminance the luminance of the point light
+	 */
+	public void addPoint(int slot, @NotNull Object owner, long homeKey, double x, double y, double z, int luminance) {
+		int index = this.pointStarts[slot] + this.pointCounts[slot]++;
+		this.pointOwners[index] = owner;
+		this.setPoint(slot, index, homeKey, x, y, z, luminance);
+	}
+
+	/**
+	 * Adds an entry to the given cell, which must have enough room.
+	 *
+	 * @param slot the slot of the cell
+	 * @param owner the owner of the entry
+	 * @param entry the entry
+	 */
+	public void addEntry(int slot, @NotNull Object owner, @NotNull SpatialLookupEntry entry) {
+		int index = this.entryStarts[slot] + this.entryCounts[slot]++;
+		this.entries[index] = entry;
+		this.entryOwners[index] = owner;
+		this.touch(slot);
+	}
+
+	/**
+	 * Finds a point light of the given owner in the given cell.
+	 *
+	 * @param slot the slot of the cell
+	 * @param owner the owner of the point light
+	 * @param from the index to start searching from, or {@code -1} to search from the start of the cell
+	 * @return the index of the point light, or {@code -1} if none could be found
+	 */
+	public int findPoint(int slot, @NotNull Object owner, int from) {
+		int start = this.pointStarts[slot];
+		int end = start + this.pointCounts[slot];
+
+		for (int i = Math.max(from, start); i < end; i++) {
+			if (this.pointOwners[i] == owner) {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Sets the values of a point light.
+	 *
+	 * @param slot the slot of the cell the point light is in
+	 * @param index the index of the point light
+	 * @param homeKey the key of the own cell of the point light
+	 * @param x the X-coordinate of the point light
+	 * @param y the Y-coordinate of the point light
+	 * @param z the Z-coordinate of the point light
+	 * @param luminance the luminance of the point light
+	 */
+	public void setPoint(int slot, int index, long homeKey, double x, double y, double z, int luminance) {
+		this.touch(slot);
+
+		long key = this.cellKeys[slot];
+		int homeX = DynamicLightingEngine.unpackCellKeyX(homeKey);
+		int homeY = DynamicLightingEngine.unpackCellKeyY(homeKey);
+		int homeZ = DynamicLightingEngine.unpackCellKeyZ(homeKey);
+
+		// Coordinates are stored relative to the origin of the cell so they keep their precision anywhere in the world.
+		this.pointX[index] = (float) (x - ((long) homeX << 3));
+		this.pointY[index] = (float) (y - ((long) homeY << 3));
+		this.pointZ[index] = (float) (z - ((long) homeZ << 3));
+		this.pointLuminance[index] = (byte) luminance;
+		this.pointShiftX[index] = (byte) ((homeX - DynamicLightingEngine.unpackCellKeyX(key)) << 3);
+		this.pointShiftY[index] = (byte) ((homeY - DynamicLightingEngine.unpackCellKeyY(key)) << 3);
+		this.pointShiftZ[index] = (byte) ((homeZ - DynamicLightingEngine.unpackCellKeyZ(key)) << 3);
+		this.includeInBounds(
+				slot,
+				this.pointX[index] + this.pointShiftX[index],
+				this.pointY[index] + this.pointShiftY[index],
+				this.pointZ[index] + this.pointShiftZ[index],
+				luminance
+		);
+	}
+
+	private void resetBounds(int slot) {
+		this.boundsRadius[slot] = -1.f;
+		this.maxLuminance[slot] = 0;
+	}
+
+	/**
+	 * Grows the bounds of the given cell to include the given point light.
+	 *
+	 * @param slot the slot of the cell
+	 * @param x the X-coordinate of the point light, relative to the origin of the cell
+	 * @param y the Y-coordinate of the point light, relative to the origin of the cell
+	 * @param z the Z-coordinate of the point light, relative to the origin of the cell
+	 * @param luminance the luminance of the point light
+	 */
+	private void includeInBounds(int slot, float x, float y, float z, int luminance) {
+		if (luminance > this.maxLuminance[slot]) {
+			this.maxLuminance[slot] = (byte) luminance;
+		}
+
+		float radius = this.boundsRadius[slot];
+
+		if (radius < 0) {
+			this.boundsX[slot] = x;
+			this.boundsY[slot] = y;
+			this.boundsZ[slot] = z;
+			this.boundsRadius[slot] = 0.f;
+			return;
+		}
+
+		double dx = x - this.boundsX[slot];
+		double dy = y - this.boundsY[slot];
+		double dz = z - this.boundsZ[slot];
+		double distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
+
+		if (distance > radius) {
+			// Grow the sphere just enough to enclose both the previous sphere and the point light.
+			double newRadius = (radius + distance) / 2.;
+			double shift = (newRadius - radius) / distance;
+			this.boundsX[slot] = (float) (this.boundsX[slot] + dx * shift);
+			this.boundsY[slot] = (float) (this.boundsY[slot] + dy * shift);
+			this.boundsZ[slot] = (float) (this.boundsZ[slot] + dz * shift);
+			this.boundsRadius[slot] = (float) newRadius;
+		}
+	}
+
+	/**
+	 * {@return {@code true} if a point light of the given cell may give an encoded light level above the given one at the given block, or {@code false} otherwise}
+	 *
+	 * @param slot the slot of the cell
+	 * @param x the X-coordinate of the block, relative to the origin of the cell
+	 * @param y the Y-coordinate of the block, relative to the origin of the cell
+	 * @param z the Z-coordinate of the block, relative to the origin of the cell
+	 * @param encoded the encoded light level found so far
+	 */
+	private boolean mayBeBrighter(int slot, int x, int y, int z, int encoded) {
+		int maxLuminance = this.maxLuminance[slot];
+
+		if (FixedPointLightLevels.encode(maxLuminance) <= encoded) {
+			return false;
+		}
+
+		// Beating the encoded light level requires a light level above its sixteenths rounded down.
+		double result = FixedPointLightLevels.getSixteenths(encoded) / 16.;
+
+		// The best light level is reached at the closest possible point light, which is at least this far from the block.
+		// A point light at that distance has to be closer than this to give more than the result.
+		double reach = this.boundsRadius[slot] + (maxLuminance - result) / 15. * DynamicLightingEngine.MAX_RADIUS + BOUNDS_EPSILON;
+		double dx = x + 0.5 - this.boundsX[slot];
+		double dy = y + 0.5 - this.boundsY[slot];
+		double dz = z + 0.5 - this.boundsZ[slot];
+		return dx * dx + dy * dy + dz * dz < reach * reach;
+	}
+
+	/**
+	 * Removes a point light of the given owner from the given cell.
+	 *
+	 * @param slot the slot of the cell
+	 * @param owner the owner of the point light
+	 */
+	public void removePoint(int slot, @NotNull Object owner) {
+		int index = this.findPoint(slot, owner, -1);
+
+		if (index != -1) {
+			this.touch(slot);
+
+			// Order within a cell does not matter, swap with the last point light of the cell.
+			int last = this.pointStarts[slot] + --this.pointCounts[slot];
+			this.pointX[index] = this.pointX[last];
+			this.pointY[index] = this.pointY[last];
+			this.pointZ[index] = this.pointZ[last];
+			this.pointLuminance[index] = this.pointLuminance[last];
+			this.pointShiftX[index] = this.pointShiftX[last];
+			this.pointShiftY[index] = this.pointShiftY[last];
+			this.pointShiftZ[index] = this.pointShiftZ[last];
+			this.pointOwners[index] = this.pointOwners[last];
+			this.pointOwners[last] = null;
+
+			if (this.pointCounts[slot] == 0) {
+				this.resetBounds(slot);
+			}
+		}
+	}
+
+	/**
+	 * Removes an entry of the given owner from the given cell.
+	 *
+	 * @param slot the slot of the cell
+	 * @param owner the owner of the entry
+	 * @param entry the entry
+	 */
+	public void removeEntry(int slot, @NotNull Object owner, @NotNull SpatialLookupEntry entry) {
+		int start = this.entryStarts[slot];
+		int last = start + this.entryCounts[slot] - 1;
+
+		for (int i = start; i <= last; i++) {
+			if (this.entryOwners[i] == owner && this.entries[i] == entry) {
+				this.touch(slot);
+
+				// Order within a cell does not matter, swap with the last entry of the cell.
+				this.entries[i] = this.entries[last];
+				this.entryOwners[i] = this.entryOwners[last];
+				this.entries[last] = null;
+				this.entryOwners[last] = null;
+				this.entryCounts[slot]--;
+				break;
+			}
+		}
+	}
+
+	/**
+	 * {@return the amount of point lights and entries in the given cell}
+	 *
+	 * @param key the cell key
+	 */
+	public int getEntryCountAt(long key) {
+		int slot = this.findCell(key);
+		return slot == -1 ? 0 : this.pointCounts[slot] + this.entryCounts[slot];
+	}
+
+	/**
+	 * Returns the {@linkplain FixedPointLightLevels encoded} dynamic light level at the specified position if it is above the given threshold.
+	 * <p>
+	 * Cells which cannot give more than the light level found so far are skipped,
+	 * starting from the threshold allows to skip even more of them.
+	 * Point lights are evaluated in fixed-point, without any square root, like in
+	 * {@link #fillDynamicLightLevels(int, int, int, int, short[], int, SpatialLookupCounters)}.
+	 *
+	 * @param x the X-coordinate of the block
+	 * @param y the Y-coordinate of the block
+	 * @param z the Z-coordinate of the block
+	 * @param threshold the encoded light level below which the dynamic light level is not needed, {@code 0} if the light level is always needed
+	 * @param counters the counters of the querying thread
+	 * @return the encoded dynamic light level at the specified position if it is above the threshold,
+	 * or a value which is not above the threshold otherwise
+	 */
+	public int getDynamicLightLevel(int x, int y, int z, int threshold, @NotNull SpatialLookupCounters counters) {
+		int cellX = DynamicLightingEngine.positionToCell(x);
+		int cellY = DynamicLightingEngine.positionToCell(y);
+		int cellZ = DynamicLightingEngine.positionToCell(z);
+
+		// The cell of the position is the most likely to hold the brightest light sources, so it goes first.
+		int result = this.getCellLightLevel(x, y, z, cellX, cellY, cellZ, threshold, counters);
+
+		if (this.layout == SpatialLookupLayout.REPLICATED) {
+			// Every light source which may reach the position is replicated in its cell.
+			return result;
+		}
+
+		for (int offsetX = -1; offsetX <= 1; offsetX++) {
+			for (int offsetY = -1; offsetY <= 1; offsetY++) {
+				for (int offsetZ = -1; offsetZ <= 1; offsetZ++) {
+					if (result >= FixedPointLightLevels.MAX_ENCODED) {
+						return result;
+					}
+
+					if (offsetX == 0 && offsetY == 0 && offsetZ == 0) continue;
+
+					result = this.getCellLightLevel(x, y, z, cellX + offsetX, cellY + offsetY, cellZ + offsetZ, result, counters);
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Computes the maximum encoded light level given by the point lights and entries of the given cell.
+	 *
+	 * @param x the X-coordinate of the queried block
+	 * @param y the Y-coordinate of the queried block
+	 * @param z the Z-coordinate of the queried block
+	 * @param cellX the X-coordinate of the cell
+	 * @param cellY the Y-coordinate of the cell
+	 * @param cellZ the Z-coordinate of the cell
+	 * @param result the current maximum encoded light level
+	 * @param counters the counters of the querying thread
+	 * @return the new maximum encoded light level
+	 */
+	private int getCellLightLevel(int x, int y, int z, int cellX, int cellY, int cellZ, int result, SpatialLookupCounters counters) {
+		int slot = this.findCell(DynamicLightingEngine.cellKey(cellX, cellY, cellZ));
+
+		if (slot == -1) return result;
+
+		counters.cellProbes++;
+
+		int localX = x - (cellX << 3);
+		int localY = y - (cellY << 3);
+		int localZ = z - (cellZ << 3);
+
+		if (this.mayBeBrighter(slot, localX, localY, localZ, result)) {
+			counters.evaluatedLights += this.pointCounts[slot];
+			result = this.getPointLightLevel(slot, localX, localY, localZ, result);
+		}
+
+		int start = this.entryStarts[slot];
+		int end = start + this.entryCounts[slot];
+
+		int i = start;
+		for (; i < end && result < FixedPointLightLevels.MAX_ENCODED; i++) {
+			double light = this.entries[i].getDynamicLightLevel(x, y, z);
+
+			if (light > 0) {
+				int encoded = FixedPointLightLevels.encode(Math.min(light, 15));
+				if (encoded > result) {
+					result = encoded;
+				}
+			}
+		}
+
+		counters.evaluatedLights += i - start;
+		return result;
+	}
+
+	/**
+	 * Computes the {@linkplain FixedPointLightLevels encoded} dynamic light levels of a whole box of blocks at once.
+	 * <p>
+	 * Each cell around the box is visited once, its point lights and entries are only evaluated on the blocks
+	 * which would see the cell in {@link #getDynamicLightLevel(int, int, int, double, SpatialLookupCounters)},
+	 * and point lights only within their radius.
+	 * Point lights are evaluated in fixed-point, without any square root.
+	 * The computed light levels are identical to the encoded ones computed one block at a time.
+	 *
+	 * @param originX the X-coordinate of the minimum corner of the box
+	 * @param originY the Y-coordinate of the minimum corner of the box
+	 * @param originZ the Z-coordinate of the minimum corner of the box
+	 * @param size the amount of blocks covered by the box on each axis
+	 * @param levels the encoded light levels to fill, indexed as {@code offset + (y * size + z) * size + x} relative to the origin
+	 * @param offset the index of the light level of the origin
+	 * @param counters the counters of the querying thread
+	 */
+	public void fillDynamicLightLevels(
+			int originX, int originY, int originZ, int size, short[] levels, int offset,
+			@NotNull SpatialLookupCounters counters
+	) {
+		Arrays.fill(levels, offset, offset + size * size * size, (short) 0);
+
+		// How many cells away from its own cell a block sees the light sources of, and the blocks which see a cell relative to its origin.
+		int reach = this.layout == SpatialLookupLayout.REPLICATED ? 0 : 1;
+		int viewMin = -reach << 3;
+		int viewMax = (reach + 1) << 3;
+
+		int minCellX = DynamicLightingEngine.positionToCell(originX) - reach;
+		int minCellY = DynamicLightingEngine.positionToCell(originY) - reach;
+		int minCellZ = DynamicLightingEngine.positionToCell(originZ) - reach;
+		int maxCellX = DynamicLightingEngine.positionToCell(originX + size - 1) + reach;
+		int maxCellY = DynamicLightingEngine.positionToCell(originY + size - 1) + reach;
+		int maxCellZ = DynamicLightingEngine.positionToCell(originZ + size - 1) + reach;
+
+		for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+			for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+				for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+					int slot = this.findCell(DynamicLightingEngine.cellKey(cellX, cellY, cellZ));
+
+					if (slot == -1) continue;
+
+					counters.cellProbes++;
+					counters.evaluatedLights += this.pointCounts[slot] + this.entryCounts[slot];
+
+					// The box relative to the origin of the cell, restricted to the blocks which see this cell.
+					int cellOriginX = cellX << 3;
+					int cellOriginY = cellY << 3;
+					int cellOriginZ = cellZ << 3;
+					int minX = Math.max(originX - cellOriginX, viewMin);
+					int minY = Math.max(originY - cellOriginY, viewMin);
+					int minZ = Math.max(originZ - cellOriginZ, viewMin);
+					int maxX = Math.min(originX + size - cellOriginX, viewMax);
+					int maxY = Math.min(originY + size - cellOriginY, viewMax);
+					int maxZ = Math.min(originZ + size - cellOriginZ, viewMax);
+
+					this.fillPointLightLevels(
+							slot,
+							minX, minY, minZ, maxX, maxY, maxZ,
+							cellOriginX - originX, cellOriginY - originY, cellOriginZ - originZ,
+							size, levels, offset
+					);
+
+					int start = this.entryStarts[slot];
+					int end = start + this.entryCounts[slot];
+
+					for (int i = start; i < end; i++) {
+						var entry = this.entries[i];
+
+						for (int y = minY; y < maxY; y++) {
+							for (int z = minZ; z < maxZ; z++) {
+								int row = offset + ((y + cellOriginY - originY) * size + (z + cellOriginZ - originZ)) * size + cellOriginX - originX;
+
+								for (int x = minX; x < maxX; x++) {
+									double light = entry.getDynamicLightLevel(cellOriginX + x, cellOriginY + y, cellOriginZ + z);
+
+									if (light > 0) {
+										int encoded = FixedPointLightLevels.encode(Math.min(light, 15));
+										if (encoded > levels[row + x]) {
+											levels[row + x] = (short) encoded;
+										}
+									}
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Fills the light levels of the point lights of the given cell into the given light levels.
+	 *
+	 * @param slot the slot of the cell
+	 * @param minX the minimum X-coordinate of the blocks to fill, relative to the origin of the cell
+	 * @param minY the minimum Y-coordinate of the blocks to fill, relative to the origin of the cell
+	 * @param minZ the minimum Z-coordinate of the blocks to fill, relative to the origin of the cell
+	 * @param maxX the maximum X-coordinate of the blocks to fill, exclusive and relative to the origin of the cell
+	 * @param maxY the maximum Y-coordinate of the blocks to fill, exclusive and relative to the origin of the cell
+	 * @param maxZ the maximum Z-coordinate of the blocks to fill, exclusive and relative to the origin of the cell
+	 * @param offsetX the X-coordinate of the origin of the cell, relative to the origin of the light levels
+	 * @param offsetY the Y-coordinate of the origin of the cell, relative to the origin of the light levels
+	 * @param offsetZ the Z-coordinate of the origin of the cell, relative to the origin of the light levels
+	 * @param size the amount of blocks covered by the light levels on each axis
+	 * @param levels the encoded light levels to fill
+	 * @param offset the index of the light level of the origin
+	 */
+	private void fillPointLightLevels(
+			int slot,
+			int minX, int minY, int minZ, int maxX, int maxY, int maxZ,
+			int offsetX, int offsetY, int offsetZ,
+			int size, short[] levels, int offset
+	) {
+		int start = this.pointStarts[slot];
+		int end = start + this.pointCounts[slot];
+
+		for (int i = start; i < end; i++) {
+			float pointX = this.pointX[i];
+			float pointY = this.pointY[i];
+			float pointZ = this.pointZ[i];
+			int shiftX = this.pointShiftX[i];
+			int shiftY = this.pointShiftY[i];
+			int shiftZ = this.pointShiftZ[i];
+			int luminance = this.pointLuminance[i];
+
+			// Only the blocks within the radius of the point light can be lit by it.
+			int fromX = Math.max(minX, (int) Math.floor(pointX + shiftX - 0.5 - DynamicLightingEngine.MAX_RADIUS));
+			int fromY = Math.max(minY, (int) Math.floor(pointY + shiftY - 0.5 - DynamicLightingEngine.MAX_RADIUS));
+			int fromZ = Math.max(minZ, (int) Math.floor(pointZ + shiftZ - 0.5 - DynamicLightingEngine.MAX_RADIUS));
+			int toX = Math.min(maxX, (int) Math.ceil(pointX + shiftX - 0.5 + DynamicLightingEngine.MAX_RADIUS) + 1);
+			int toY = Math.min(maxY, (int) Math.ceil(pointY + shiftY - 0.5 + DynamicLightingEngine.MAX_RADIUS) + 1);
+			int toZ = Math.min(maxZ, (int) Math.ceil(pointZ + shiftZ - 0.5 + DynamicLightingEngine.MAX_RADIUS) + 1);
+
+			for (int y = fromY; y < toY; y++) {
+				// Same arithmetic as getPointLightLevel so the encoded light levels are identical.
+				double dy = (y - shiftY) - pointY + 0.5;
+
+				for (int z = fromZ; z < toZ; z++) {
+					double dz = (z - shiftZ) - pointZ + 0.5;
+					double distanceSquaredYZ = dy * dy + dz * dz;
+					if (distanceSquaredYZ > DynamicLightingEngine.MAX_RADIUS_SQUARED) continue;
+
+					int row = offset + ((y + offsetY) * size + (z + offsetZ)) * size + offsetX;
+
+					for (int x = fromX; x < toX; x++) {
+						double dx = (x - shiftX) - pointX + 0.5;
+
+						// The beating threshold is never above the squared radius.
+						double distanceSquared = dx * dx + dy * dy + dz * dz;
+						int current = levels[row + x];
+						if (distanceSquared <= FixedPointLightLevels.getBeatingThreshold(luminance, current)) {
+							levels[row + x] = (short) FixedPointLightLevels.evaluate(luminance, distanceSquared, current);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Computes the maximum encoded light level of the point lights of the given cell.
+	 *
+	 * @param slot the slot of the cell
+	 * @param x the X-coordinate of the queried block, relative to the origin of the cell
+	 * @param y the Y-coordinate of the queried block, relative to the origin of the cell
+	 * @param z the Z-coordinate of the queried block, relative to the origin of the cell
+	 * @param result the current maximum encoded light level
+	 * @return the new maximum encoded light level
+	 */
+	private int getPointLightLevel(int slot, int x, int y, int z, int result) {
+		int start = this.pointStarts[slot];
+		int end = start + this.pointCounts[slot];
+
+		for (int i = start; i < end; i++) {
+			// Same as SpatialLookupEntry#lightAtPos, relative to the own cell of the point light.
+			double dx = (x - this.pointShiftX[i]) - this.pointX[i] + 0.5;
+			double dy = (y - this.pointShiftY[i]) - this.pointY[i] + 0.5;
+			double dz = (z - this.pointShiftZ[i]) - this.pointZ[i] + 0.5;
+
+			// The beating threshold is never above the squared radius.
+			double distanceSquared = dx * dx + dy * dy + dz * dz;
+			int luminance = this.pointLuminance[i];
+			if (distanceSquared <= FixedPointLightLevels.getBeatingThreshold(luminance, result)) {
+				result = FixedPointLightLevels.evaluate(luminance, distanceSquared, result);
+			}
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of LambDynamicLights.
+ *
+ * Licensed under the Lambda License. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.lambdynlights.engine.lookup;
+
+/**
+ * Represents the counters of the work done by the queries of a single thread on spatial lookups.
+ * <p>
+ * The counters are plain fields which must only be incremented by the thread owning them,
+ * so counting costs no more than a few increments per queried cell.
+ * Other threads may read them for statistics, in which case they may be slightly off.
+ *
+ * @author LambdAurora
+ * @version 4.0.0
+ * @since 4.0.0
+ */
+public final class SpatialLookupCounters {
+	long cellProbes;
+	long evaluatedLights;
+
+	/**
+	 * {@return the number of non-empty cells which have been probed}
+	 */
+	public long getCellProbes() {
+		return this.cellProbes;
+	}
+
+	/**
+	 * {@return the number of point lights and entries which have been evaluated}
+	 * <p>
+	 * When filling light levels, a point light or an entry counts once per cell it is rasterized over.
+	 */
+	public long getEvaluatedLights() {
+		return this.evaluatedLights;
+	}
+}
@@ -10,8 +10,6 @@
 package dev.lambdaurora.lambdynlights.engine.lookup;
 
 import dev.lambdaurora.lambdynlights.engine.DynamicLightingEngine;
-import net.minecraft.core.BlockPos;
-import org.jetbrains.annotations.NotNull;
 
 /**
  * Represents an entry in a spatial lookup.
@@ -21,24 +19,21 @@ import org.jetbrains.annotations.NotNull;
  * @since 3.1.0
  */
 public interface SpatialLookupEntry {
-	/**
-	 * {@return the cell key of this entry}
-	 */
-	int cellKey();
-
 	/**
 	 * Returns the dynamic light level generated by this entry at the specified position.
 	 *
-	 * @param pos the position
+	 * @param x the X-coordinate of the block
+	 * @param y the Y-coordinate of the block
+	 * @param z the Z-coordinate of the block
 	 * @return the computed dynamic light level at the specified position
 	 */
-	double getDynamicLightLevel(@NotNull BlockPos pos);
+	double getDynamicLightLevel(int x, int y, int z);
 
-	static double lightAtPos(double x, double y, double z, @NotNull BlockPos pos, int luminance) {
+	static double lightAtPos(double x, double y, double z, int blockX, int blockY, int blockZ, int luminance) {
 		// Can't use Entity#squaredDistanceTo because of eye Y coordinate.
-		double dx = pos.getX() - x + 0.5;
-		double dy = pos.getY() - y + 0.5;
-		double dz = pos.getZ() - z + 0.5;
+		double dx = blockX - x + 0.5;
+		double dy = blockY - y + 0.5;
+		double dz = blockZ - z + 0.5;
 
 		double distanceSquared = dx * dx + dy * dy + dz * dz;
 		// 7.75 because else we would have to update more chunks and that's not a good idea.
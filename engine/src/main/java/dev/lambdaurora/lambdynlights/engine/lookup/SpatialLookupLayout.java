@@ -0,0 +1,68 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of LambDynamicLights.
+ *
+ * Licensed under the Lambda License. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.lambdynlights.engine.lookup;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Represents the layout of the spatial lookup, which trades computation time and memory for query time.
+ *
+ * @author LambdAurora
+ * @version 4.0.0
+ * @since 4.0.0
+ */
+public enum SpatialLookupLayout {
+	/**
+	 * Each light source is stored once in its own cell, a query probes the 27 cells around the queried position.
+	 */
+	NEIGHBOR_PROBES,
+	/**
+	 * Each light source is replicated in every cell its light reaches, a query only reads the cell of the queried position.
+	 * <p>
+	 * Point lights are usually replicated in 8 to 27 cells.
+	 */
+	REPLICATED;
+
+	/**
+	 * Returns the next spatial lookup layout available.
+	 *
+	 * @return the next available spatial lookup layout
+	 */
+	public SpatialLookupLayout next() {
+		SpatialLookupLayout[] v = values();
+		if (v.length == this.ordinal() + 1)
+			return v[0];
+		return v[this.ordinal() + 1];
+	}
+
+	public @NotNull String getName() {
+		return this.name().toLowerCase();
+	}
+
+	/**
+	 * {@return the translation key of this spatial lookup layout}
+	 */
+	public @NotNull String getTranslationKey() {
+		return "lambdynlights.option.performance.lookup_layout." + this.getName();
+	}
+
+	/**
+	 * Gets the spatial lookup layout from its identifier.
+	 *
+	 * @param id the identifier of the spatial lookup layout
+	 * @return the spatial lookup layout if found, else empty
+	 */
+	public static @NotNull Optional<SpatialLookupLayout> byId(@NotNull String id) {
+		return Arrays.stream(values()).filter(layout -> layout.getName().equalsIgnoreCase(id)).findFirst();
+	}
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of LambDynamicLights.
+ *
+ * Licensed under the Lambda License. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.lambdynlights.engine.lookup;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Represents a receiver of the spatial lookup entries a dynamic light source is split into.
+ *
+ * @author LambdAurora
+ * @version 4.0.0
+ * @since 4.0.0
+ */
+public interface SpatialLookupSink {
+	/**
+	 * Accepts a point light.
+	 * <p>
+	 * Point lights are stored in a packed form and are much cheaper to query than {@linkplain #accept(long, SpatialLookupEntry) other entries}.
+	 *
+	 * @param cellKey the key of the cell the point light belongs to
+	 * @param x the X-coordinate of the point light
+	 * @param y the Y-coordinate of the point light
+	 * @param z the Z-coordinate of the point light
+	 * @param luminance the luminance of the point light
+	 */
+	void acceptPoint(long cellKey, double x, double y, double z, int luminance);
+
+	/**
+	 * Accepts a spatial lookup entry.
+	 *
+	 * @param cellKey the key of the cell the entry belongs to
+	 * @param entry the entry
+	 */
+	void accept(long cellKey, @NotNull SpatialLookupEntry entry);
+}
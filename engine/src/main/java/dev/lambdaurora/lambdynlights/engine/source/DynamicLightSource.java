@@ -0,0 +1,128 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of LambDynamicLights.
+ *
+ * Licensed under the Lambda License. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.lambdynlights.engine.source;
+
+import dev.lambdaurora.lambdynlights.engine.DynamicLightingEngine;
+import dev.lambdaurora.lambdynlights.engine.lookup.SpatialLookupSink;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Represents a dynamic light source.
+ *
+ * @author LambdAurora
+ * @version 4.0.0
+ * @since 4.0.0
+ */
+public interface DynamicLightSource {
+	/**
+	 * Splits this dynamic light source into spatial lookup entries.
+	 * <p>
+	 * This is called every time the light source is re-binned into the spatial lookup, implementations should avoid
+	 * allocating new entries each time.
+	 *
+	 * @param sink the sink to give each entry this source is made of to, alongside the key of the cell it belongs to
+	 */
+	void splitIntoDynamicLightEntries(@NotNull SpatialLookupSink sink);
+
+	/**
+	 * Returns whether the spatial lookup entries of this light source changed since they were last split.
+	 * <p>
+	 * Entries are considered changed if this light source now covers different cells, or if it now has a luminance
+	 * which differs from the one stored in the entries.
+	 *
+	 * @param previousCellKeys the cell keys previously given by {@link #splitIntoDynamicLightEntries(SpatialLookupSink)}, in order
+	 * @return {@code true} if the entries must be split again, or {@code false} otherwise
+	 */
+	boolean hasSpatialLookupEntriesChanged(@NotNull LongList previousCellKeys);
+
+	/**
+	 * Returns whether the point lights of this light source may change without it covering different cells.
+	 * <p>
+	 * If so, this light source is split again every time the spatial lookup is computed instead of being checked with
+	 * {@link #hasSpatialLookupEntriesChanged(LongList)}, and its point lights are updated in place if its cells did not change.
+	 * Such light sources must give the point lights of a same cell consecutively.
+	 *
+	 * @return {@code true} if the point lights of this light source must be refreshed, or {@code false} otherwise
+	 */
+	default boolean hasLivePointLights() {
+		return false;
+	}
+
+	/**
+	 * Returns whether the {@linkplain #hasLivePointLights() live point lights} of this light source are due to be refreshed
+	 * during the current computation of the spatial lookup.
+	 * <p>
+	 * Light sources which are not due keep the point lights they were last binned with,
+	 * which allows to keep the spatial lookup consistent with light sources updating less often than every tick.
+	 *
+	 * @return {@code true} if the live point lights of this light source must be refreshed, or {@code false} otherwise
+	 */
+	default boolean shouldRefreshLivePointLights() {
+		return true;
+	}
+
+	/**
+	 * Gathers the chunk sections to rebuild to display in-world the new light values.
+	 * <p>
+	 * The given set is reused across light sources and ticks, implementations should only add to it.
+	 *
+	 * @param forced {@code true} if relevant chunk sections must be gathered to rebuild the chunk sections (for example if the light source is removed),
+	 * or {@code false} otherwise
+	 * @param chunks the set to add the packed positions of the chunk sections to rebuild to, left untouched if none is to be rebuilt
+	 */
+	void gatherDynamicLightChunksToRebuild(boolean forced, @NotNull LongSet chunks);
+
+	/**
+	 * Computes the priority of this light source to be kept in the spatial lookup when there are more entries than it can hold.
+	 * <p>
+	 * Light sources with a higher priority are admitted first.
+	 *
+	 * @param cameraX the camera X-coordinate
+	 * @param cameraY the camera Y-coordinate
+	 * @param cameraZ the camera Z-coordinate
+	 * @return the admission priority of this light source
+	 * @see #computePriority(Kind, double, double)
+	 */
+	double getDynamicLightPriority(double cameraX, double cameraY, double cameraZ);
+
+	/**
+	 * Computes the admission priority of a light source.
+	 * <p>
+	 * The priority is the light level the source would produce at the camera if it was not capped by its radius,
+	 * plus a bonus depending on its kind.
+	 *
+	 * @param kind the kind of the light source
+	 * @param luminance the luminance of the light source
+	 * @param distanceSquared the squared distance between the light source and the camera
+	 * @return the admission priority
+	 */
+	static double computePriority(Kind kind, double luminance, double distanceSquared) {
+		return kind.priorityBonus + luminance - Math.sqrt(distanceSquared) / DynamicLightingEngine.MAX_RADIUS * 15.;
+	}
+
+	/**
+	 * Represents the kind of a light source, used to weigh its admission priority.
+	 */
+	enum Kind {
+		PLAYER(15.),
+		LIVING_ENTITY(2.),
+		ENTITY(0.),
+		BEHAVIOR(2.),
+		COLLECTION(0.);
+
+		private final double priorityBonus;
+
+		Kind(double priorityBonus) {
+			this.priorityBonus = priorityBonus;
+		}
+	}
+}
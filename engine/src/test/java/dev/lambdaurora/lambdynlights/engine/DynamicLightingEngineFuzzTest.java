@@ -0,0 +1,318 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of LambDynamicLights.
+ *
+ * Licensed under the Lambda License. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.lambdynlights.engine;
+
+import dev.lambdaurora.lambdynlights.engine.lookup.FixedPointLightLevels;
+import dev.lambdaurora.lambdynlights.engine.lookup.SpatialLookupLayout;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Checks the dynamic lighting engine against a {@linkplain ReferenceDynamicLightingEngine brute-force reference}
+ * on random light sources, which move, appear and disappear tick after tick.
+ * <p>
+ * Every query path of the engine must give the exact same lightmap coordinates as the reference.
+ * The amount of trials and the seed can be set with the {@code lambdynlights.fuzz.iterations}
+ * and {@code lambdynlights.fuzz.seed} properties, the seed of a failing run is given in its failure message.
+ *
+ * @author LambdAurora
+ * @version 4.0.0
+ * @since 4.0.0
+ */
+class DynamicLightingEngineFuzzTest {
+	private static final int TRIALS = Integer.getInteger("lambdynlights.fuzz.iterations", 64);
+	private static final int TICKS = 6;
+	private static final int RANDOM_QUERIES = 256;
+	private static final int CHECKED_SECTIONS = 2;
+	/**
+	 * How far around the light sources the light levels are queried.
+	 */
+	private static final int QUERY_MARGIN = 10;
+
+	@Test
+	void matchesReference() {
+		long seed = Long.getLong("lambdynlights.fuzz.seed", new Random().nextLong());
+		var random = new Random(seed);
+
+		for (int trial = 0; trial < TRIALS; trial++) {
+			new Trial(seed, trial, random.nextLong()).run();
+		}
+	}
+
+	@Test
+	void liveEntriesInvalidateCachedLightLevels() {
+		for (var layout : SpatialLookupLayout.values()) {
+			var settings = new Settings();
+			settings.layout = layout;
+			var engine = new DynamicLightingEngine(settings);
+			// The box changes its light without leaving its cells, so the engine sees nothing move.
+			var box = new FuzzLightSource.Box(1, 1, 1, 2, 2, 2, 15);
+			var sources = List.of(box);
+
+			engine.computeSpatialLookup(sources, 0, 0, 0);
+			assertEquals(FixedPointLightLevels.encode(15), engine.getCachedDynamicLightLevel(1, 1, 1, DynamicLightQuerySite.OTHER));
+			assertEquals(FixedPointLightLevels.encode(15), engine.getSectionDynamicLightLevel(1, 1, 1, DynamicLightQuerySite.BLOCK_MESHING));
+
+			box.luminance = 3;
+			engine.computeSpatialLookup(sources, 0, 0, 0);
+			assertEquals(FixedPointLightLevels.encode(3), engine.getCachedDynamicLightLevel(1, 1, 1, DynamicLightQuerySite.OTHER),
+					layout.getName());
+			assertEquals(FixedPointLightLevels.encode(3), engine.getSectionDynamicLightLevel(1, 1, 1, DynamicLightQuerySite.BLOCK_MESHING),
+					layout.getName());
+		}
+	}
+
+	/**
+	 * Represents a single engine fed with random light sources for a few ticks.
+	 */
+	private static final class Trial {
+		private final long seed;
+		private final int index;
+		private final Random random;
+		private final Settings settings = new Settings();
+		private final DynamicLightingEngine engine = new DynamicLightingEngine(this.settings);
+		private final List<FuzzLightSource> sources = new ArrayList<>();
+		private final ReferenceDynamicLightingEngine reference = new ReferenceDynamicLightingEngine(this.sources);
+		// Anywhere in the world, including negative coordinates and coordinates far away from the origin.
+		private final int originX;
+		private final int originY;
+		private final int originZ;
+		private final int extent;
+		private int tick;
+
+		Trial(long seed, int index, long trialSeed) {
+			this.seed = seed;
+			this.index = index;
+			this.random = new Random(trialSeed);
+			this.originX = this.random.nextInt(60_000_000) - 30_000_000;
+			this.originY = this.random.nextInt(384) - 64;
+			this.originZ = this.random.nextInt(60_000_000) - 30_000_000;
+			// Small areas give many overlapping light sources, large ones give sparse cells.
+			this.extent = 4 + this.random.nextInt(60);
+			this.settings.layout = this.randomLayout();
+
+			int count = 1 + this.random.nextInt(48);
+			for (int i = 0; i < count; i++) {
+				this.sources.add(this.createSource());
+			}
+
+			// Every trial has at least one live entry.
+			this.sources.add(this.createBox());
+		}
+
+		void run() {
+			for (this.tick = 0; this.tick < TICKS; this.tick++) {
+				if (this.tick != 0) {
+					this.update();
+				}
+
+				this.engine.computeSpatialLookup(this.sources, this.originX, this.originY, this.originZ);
+
+				for (int i = 0; i < RANDOM_QUERIES; i++) {
+					this.check(this.randomQueryX(), this.randomQueryY(), this.randomQueryZ(), false);
+				}
+
+				// Whole sections are checked block after block, as the chunk builder queries them.
+				for (int i = 0; i < CHECKED_SECTIONS; i++) {
+					int startX = DynamicLightingEngine.positionToSection(this.randomQueryX()) << 4;
+					int startY = DynamicLightingEngine.positionToSection(this.randomQueryY()) << 4;
+					int startZ = DynamicLightingEngine.positionToSection(this.randomQueryZ()) << 4;
+
+					for (int y = startY; y < startY + 16; y++) {
+						for (int z = startZ; z < startZ + 16; z++) {
+							for (int x = startX; x < startX + 16; x++) {
+								this.check(x, y, z, true);
+							}
+						}
+					}
+				}
+			}
+		}
+
+		private void update() {
+			// Some ticks only change the light of the boxes, which stay within their cells, so the engine sees nothing move.
+			if (this.random.nextInt(4) == 0) {
+				for (var source : this.sources) {
+					if (source instanceof FuzzLightSource.Box box) {
+						box.luminance = 1 + (box.luminance + this.random.nextInt(14)) % 15;
+					}
+				}
+
+				return;
+			}
+
+			for (var source : this.sources) {
+				if (source instanceof FuzzLightSource.Point point) {
+					if (this.random.nextInt(10) == 0) {
+						point.moveTo(this.randomX(), this.randomY(), this.randomZ());
+					} else if (this.random.nextBoolean()) {
+						point.moveTo(
+								point.x + this.random.nextDouble() * 3. - 1.5,
+								point.y + this.random.nextDouble() * 3. - 1.5,
+								point.z + this.random.nextDouble() * 3. - 1.5
+						);
+					}
+
+					if (this.random.nextInt(5) == 0) {
+						point.luminance = this.random.nextInt(16);
+					}
+				} else if (source instanceof FuzzLightSource.Box box) {
+					if (this.random.nextInt(3) == 0) {
+						int dx = this.random.nextInt(5) - 2;
+						int dy = this.random.nextInt(5) - 2;
+						int dz = this.random.nextInt(5) - 2;
+						box.moveTo(
+								box.startX + dx, box.startY + dy, box.startZ + dz,
+								box.endX + dx, box.endY + dy, box.endZ + dz
+						);
+					}
+
+					if (this.random.nextInt(10) == 0) {
+						box.luminance = 1 + this.random.nextInt(15);
+					}
+				}
+			}
+
+			if (!this.sources.isEmpty() && this.random.nextInt(10) == 0) {
+				this.sources.remove(this.random.nextInt(this.sources.size()));
+			}
+
+			if (this.random.nextInt(10) == 0) {
+				this.sources.add(this.createSource());
+			}
+
+			// Switching the layout forces a full rebuild.
+			if (this.random.nextInt(10) == 0) {
+				this.settings.layout = this.randomLayout();
+			}
+		}
+
+		private FuzzLightSource createSource() {
+			return switch (this.random.nextInt(4)) {
+				case 0, 1 -> new FuzzLightSource.Point(this.randomX(), this.randomY(), this.randomZ(), this.random.nextInt(16));
+				case 2 -> {
+					int count = 1 + this.random.nextInt(8);
+					var points = new double[count * 3];
+					var luminance = new int[count];
+					double x = this.randomX();
+					double y = this.randomY();
+					double z = this.randomZ();
+
+					for (int i = 0; i < count; i++) {
+						points[i * 3] = x + this.random.nextDouble() * 20. - 10.;
+						points[i * 3 + 1] = y + this.random.nextDouble() * 20. - 10.;
+						points[i * 3 + 2] = z + this.random.nextDouble() * 20. - 10.;
+						luminance[i] = this.random.nextInt(16);
+					}
+
+					yield new FuzzLightSource.Cluster(points, luminance);
+				}
+				default -> this.createBox();
+			};
+		}
+
+		private FuzzLightSource.Box createBox() {
+			int x = (int) Math.floor(this.randomX());
+			int y = (int) Math.floor(this.randomY());
+			int z = (int) Math.floor(this.randomZ());
+
+			return new FuzzLightSource.Box(
+					x, y, z,
+					x + this.random.nextInt(12), y + this.random.nextInt(12), z + this.random.nextInt(12),
+					1 + this.random.nextInt(15)
+			);
+		}
+
+		private void check(int x, int y, int z, boolean wholeSection) {
+			int lightmap = this.random.nextInt(16) << 20 | this.random.nextInt(16) << 4;
+			int expected = this.reference.getLightmap(x, y, z, lightmap);
+
+			this.assertLightmap("getDynamicLightLevel", x, y, z, lightmap, expected,
+					FixedPointLightLevels.encode(this.engine.getDynamicLightLevel(x, y, z, DynamicLightQuerySite.OTHER)));
+			this.assertLightmap("getDynamicLightLevel with threshold", x, y, z, lightmap, expected,
+					FixedPointLightLevels.encode(this.engine.getDynamicLightLevel(x, y, z, lightmap >> 4 & 15, DynamicLightQuerySite.OTHER)));
+			this.assertLightmap("getCachedDynamicLightLevel", x, y, z, lightmap, expected,
+					this.engine.getCachedDynamicLightLevel(x, y, z, DynamicLightQuerySite.OTHER));
+
+			if (wholeSection) {
+				this.assertLightmap("getSectionDynamicLightLevel", x, y, z, lightmap, expected,
+						this.engine.getSectionDynamicLightLevel(x, y, z, DynamicLightQuerySite.BLOCK_MESHING));
+			}
+		}
+
+		private void assertLightmap(String path, int x, int y, int z, int lightmap, int expected, int encoded) {
+			int actual = FixedPointLightLevels.applyToLightmap(encoded, lightmap);
+
+			if (actual != expected) {
+				fail(String.format(
+						"%s at (%d, %d, %d) with lightmap 0x%08x gave 0x%08x instead of 0x%08x (reference light level %s) "
+								+ "with the %s layout, at tick %d of trial %d of seed %d",
+						path, x, y, z, lightmap, actual, expected, this.reference.getDynamicLightLevel(x, y, z),
+						this.settings.layout.getName(), this.tick, this.index, this.seed
+				));
+			}
+		}
+
+		private SpatialLookupLayout randomLayout() {
+			var layouts = SpatialLookupLayout.values();
+			return layouts[this.random.nextInt(layouts.length)];
+		}
+
+		private double randomX() {
+			return this.originX + this.random.nextDouble() * this.extent;
+		}
+
+		private double randomY() {
+			return this.originY + this.random.nextDouble() * this.extent;
+		}
+
+		private double randomZ() {
+			return this.originZ + this.random.nextDouble() * this.extent;
+		}
+
+		private int randomQueryX() {
+			return this.originX - QUERY_MARGIN + this.random.nextInt(this.extent + 2 * QUERY_MARGIN);
+		}
+
+		private int randomQueryY() {
+			return this.originY - QUERY_MARGIN + this.random.nextInt(this.extent + 2 * QUERY_MARGIN);
+		}
+
+		private int randomQueryZ() {
+			return this.originZ - QUERY_MARGIN + this.random.nextInt(this.extent + 2 * QUERY_MARGIN);
+		}
+	}
+
+	private static final class Settings implements DynamicLightingSettings {
+		private SpatialLookupLayout layout;
+
+		@Override
+		public boolean isDynamicLightingEnabled() {
+			return true;
+		}
+
+		@Override
+		public int getMaxLightEntries() {
+			// Every light source must be admitted to match the reference.
+			return 1 << 20;
+		}
+
+		@Override
+		public SpatialLookupLayout getLookupLayout() {
+			return this.layout;
+		}
+	}
+}
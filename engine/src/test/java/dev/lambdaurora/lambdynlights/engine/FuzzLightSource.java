@@ -0,0 +1,238 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of LambDynamicLights.
+ *
+ * Licensed under the Lambda License. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.lambdynlights.engine;
+
+import dev.lambdaurora.lambdynlights.engine.lookup.SpatialLookupEntry;
+import dev.lambdaurora.lambdynlights.engine.lookup.SpatialLookupSink;
+import dev.lambdaurora.lambdynlights.engine.source.DynamicLightSource;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Represents a randomly generated light source, which can evaluate its own light at any block by brute force.
+ *
+ * @author LambdAurora
+ * @version 4.0.0
+ * @since 4.0.0
+ * @see ReferenceDynamicLightingEngine
+ */
+abstract class FuzzLightSource implements DynamicLightSource {
+	/**
+	 * The grid point light coordinates are snapped to.
+	 * <p>
+	 * The spatial lookup stores point lights in single precision relative to the origin of their cell,
+	 * which holds coordinates of this grid exactly anywhere in the world.
+	 * A difference with the reference is then a bug of the engine rather than a rounding of the coordinates.
+	 */
+	private static final double POINT_GRID = 0x1p-20;
+
+	/**
+	 * Evaluates the light of this source at the given block without any spatial lookup.
+	 *
+	 * @param x the X-coordinate of the block
+	 * @param y the Y-coordinate of the block
+	 * @param z the Z-coordinate of the block
+	 * @return the light level, which may be negative if the block is out of reach
+	 */
+	abstract double evaluate(int x, int y, int z);
+
+	@Override
+	public void gatherDynamicLightChunksToRebuild(boolean forced, @NotNull LongSet chunks) {
+	}
+
+	static double snap(double coordinate) {
+		return Math.floor(coordinate / POINT_GRID) * POINT_GRID;
+	}
+
+	static long cellKeyAt(double x, double y, double z) {
+		return DynamicLightingEngine.cellKeyAt((int) Math.floor(x), (int) Math.floor(y), (int) Math.floor(z));
+	}
+
+	/**
+	 * Represents a single point light which moves and changes luminance every tick, like an entity.
+	 */
+	static final class Point extends FuzzLightSource {
+		double x;
+		double y;
+		double z;
+		int luminance;
+
+		Point(double x, double y, double z, int luminance) {
+			this.moveTo(x, y, z);
+			this.luminance = luminance;
+		}
+
+		void moveTo(double x, double y, double z) {
+			this.x = snap(x);
+			this.y = snap(y);
+			this.z = snap(z);
+		}
+
+		@Override
+		double evaluate(int x, int y, int z) {
+			return SpatialLookupEntry.lightAtPos(this.x, this.y, this.z, x, y, z, this.luminance);
+		}
+
+		@Override
+		public void splitIntoDynamicLightEntries(@NotNull SpatialLookupSink sink) {
+			sink.acceptPoint(cellKeyAt(this.x, this.y, this.z), this.x, this.y, this.z, this.luminance);
+		}
+
+		@Override
+		public boolean hasSpatialLookupEntriesChanged(@NotNull LongList previousCellKeys) {
+			return previousCellKeys.size() != 1 || previousCellKeys.getLong(0) != cellKeyAt(this.x, this.y, this.z);
+		}
+
+		@Override
+		public boolean hasLivePointLights() {
+			return true;
+		}
+
+		@Override
+		public double getDynamicLightPriority(double cameraX, double cameraY, double cameraZ) {
+			double dx = this.x - cameraX;
+			double dy = this.y - cameraY;
+			double dz = this.z - cameraZ;
+			return DynamicLightSource.computePriority(Kind.ENTITY, this.luminance, dx * dx + dy * dy + dz * dz);
+		}
+	}
+
+	/**
+	 * Represents an immutable group of point lights spread over several cells, like a collection light source.
+	 */
+	static final class Cluster extends FuzzLightSource {
+		private final double[] points;
+		private final int[] luminance;
+
+		/**
+		 * @param points the coordinates of the point lights, as consecutive X, Y and Z coordinates
+		 * @param luminance the luminance of each point light
+		 */
+		Cluster(double[] points, int[] luminance) {
+			this.points = new double[points.length];
+			for (int i = 0; i < points.length; i++) {
+				this.points[i] = snap(points[i]);
+			}
+			this.luminance = luminance;
+		}
+
+		@Override
+		double evaluate(int x, int y, int z) {
+			double result = 0;
+
+			for (int i = 0; i < this.luminance.length; i++) {
+				result = Math.max(result, SpatialLookupEntry.lightAtPos(
+						this.points[i * 3], this.points[i * 3 + 1], this.points[i * 3 + 2], x, y, z, this.luminance[i]
+				));
+			}
+
+			return result;
+		}
+
+		@Override
+		public void splitIntoDynamicLightEntries(@NotNull SpatialLookupSink sink) {
+			for (int i = 0; i < this.luminance.length; i++) {
+				double x = this.points[i * 3];
+				double y = this.points[i * 3 + 1];
+				double z = this.points[i * 3 + 2];
+				sink.acceptPoint(cellKeyAt(x, y, z), x, y, z, this.luminance[i]);
+			}
+		}
+
+		@Override
+		public boolean hasSpatialLookupEntriesChanged(@NotNull LongList previousCellKeys) {
+			return false;
+		}
+
+		@Override
+		public double getDynamicLightPriority(double cameraX, double cameraY, double cameraZ) {
+			return DynamicLightSource.computePriority(Kind.COLLECTION, 15, 0);
+		}
+	}
+
+	/**
+	 * Represents a box of light evaluated as a spatial lookup entry, like the light source of a dynamic light behavior.
+	 * <p>
+	 * The box may move within its cells without being split again, its light is then evaluated live.
+	 */
+	static final class Box extends FuzzLightSource implements SpatialLookupEntry {
+		int startX;
+		int startY;
+		int startZ;
+		int endX;
+		int endY;
+		int endZ;
+		int luminance;
+
+		Box(int startX, int startY, int startZ, int endX, int endY, int endZ, int luminance) {
+			this.moveTo(startX, startY, startZ, endX, endY, endZ);
+			this.luminance = luminance;
+		}
+
+		void moveTo(int startX, int startY, int startZ, int endX, int endY, int endZ) {
+			this.startX = startX;
+			this.startY = startY;
+			this.startZ = startZ;
+			this.endX = endX;
+			this.endY = endY;
+			this.endZ = endZ;
+		}
+
+		@Override
+		double evaluate(int x, int y, int z) {
+			return this.getDynamicLightLevel(x, y, z);
+		}
+
+		@Override
+		public double getDynamicLightLevel(int x, int y, int z) {
+			// The light fades from the faces of the box, so it never reaches further than the cells around the box.
+			double dx = Math.max(0, Math.max(this.startX - x, x - this.endX));
+			double dy = Math.max(0, Math.max(this.startY - y, y - this.endY));
+			double dz = Math.max(0, Math.max(this.startZ - z, z - this.endZ));
+			return this.luminance - Math.sqrt(dx * dx + dy * dy + dz * dz) / DynamicLightingEngine.MAX_RADIUS * 15.;
+		}
+
+		@Override
+		public void splitIntoDynamicLightEntries(@NotNull SpatialLookupSink sink) {
+			int cellEndX = DynamicLightingEngine.positionToCell(this.endX);
+			int cellEndY = DynamicLightingEngine.positionToCell(this.endY);
+			int cellEndZ = DynamicLightingEngine.positionToCell(this.endZ);
+
+			for (int x = DynamicLightingEngine.positionToCell(this.startX); x <= cellEndX; x++) {
+				for (int y = DynamicLightingEngine.positionToCell(this.startY); y <= cellEndY; y++) {
+					for (int z = DynamicLightingEngine.positionToCell(this.startZ); z <= cellEndZ; z++) {
+						sink.accept(DynamicLightingEngine.cellKey(x, y, z), this);
+					}
+				}
+			}
+		}
+
+		@Override
+		public boolean hasSpatialLookupEntriesChanged(@NotNull LongList previousCellKeys) {
+			int cellStartX = DynamicLightingEngine.positionToCell(this.startX);
+			int cellStartY = DynamicLightingEngine.positionToCell(this.startY);
+			int cellStartZ = DynamicLightingEngine.positionToCell(this.startZ);
+			int cellEndX = DynamicLightingEngine.positionToCell(this.endX);
+			int cellEndY = DynamicLightingEngine.positionToCell(this.endY);
+			int cellEndZ = DynamicLightingEngine.positionToCell(this.endZ);
+
+			int cellCount = (cellEndX - cellStartX + 1) * (cellEndY - cellStartY + 1) * (cellEndZ - cellStartZ + 1);
+			return previousCellKeys.size() != cellCount
+					|| previousCellKeys.getLong(0) != DynamicLightingEngine.cellKey(cellStartX, cellStartY, cellStartZ)
+					|| previousCellKeys.getLong(cellCount - 1) != DynamicLightingEngine.cellKey(cellEndX, cellEndY, cellEndZ);
+		}
+
+		@Override
+		public double getDynamicLightPriority(double cameraX, double cameraY, double cameraZ) {
+			return DynamicLightSource.computePriority(Kind.BEHAVIOR, this.luminance, 0);
+		}
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of LambDynamicLights.
+ *
+ * Licensed under the Lambda License. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.lambdynlights.engine;
+
+import java.util.List;
+
+/**
+ * Represents the reference the dynamic lighting engine is checked against:
+ * every light source is evaluated at every queried block, without any spatial lookup, cache or fixed-point arithmetic.
+ *
+ * @author LambdAurora
+ * @version 4.0.0
+ * @since 4.0.0
+ */
+final class ReferenceDynamicLightingEngine {
+	private final List<? extends FuzzLightSource> sources;
+
+	ReferenceDynamicLightingEngine(List<? extends FuzzLightSource> sources) {
+		this.sources = sources;
+	}
+
+	/**
+	 * {@return the dynamic light level at the given block, between {@code 0} and {@code 15}}
+	 *
+	 * @param x the X-coordinate of the block
+	 * @param y the Y-coordinate of the block
+	 * @param z the Z-coordinate of the block
+	 */
+	double getDynamicLightLevel(int x, int y, int z) {
+		double result = 0;
+
+		for (var source : this.sources) {
+			result = Math.max(result, source.evaluate(x, y, z));
+		}
+
+		return Math.min(result, 15);
+	}
+
+	/**
+	 * {@return the lightmap coordinates at the given block once combined with the dynamic light level}
+	 * <p>
+	 * This is the plain floating-point combination the fixed-point light levels of the engine have to match exactly.
+	 *
+	 * @param x the X-coordinate of the block
+	 * @param y the Y-coordinate of the block
+	 * @param z the Z-coordinate of the block
+	 * @param lightmap the vanilla lightmap coordinates
+	 */
+	int getLightmap(int x, int y, int z, int lightmap) {
+		double level = this.getDynamicLightLevel(x, y, z);
+
+		if (level > 0) {
+			// Same block light level as LightTexture#block.
+			int blockLevel = (lightmap & 0xffff) >> 4;
+
+			if (level > blockLevel) {
+				int luminance = (int) (level * 16.0);
+				lightmap &= 0xfff00000;
+				lightmap |= luminance & 0x000fffff;
+			}
+		}
+
+		return lightmap;
+	}
+}
@@ -13,12 +13,15 @@ import com.electronwill.nightconfig.core.file.FileConfig;
 import com.electronwill.nightconfig.core.io.WritingMode;
 import dev.lambdaurora.lambdynlights.config.BooleanSettingEntry;
 import dev.lambdaurora.lambdynlights.config.SettingEntry;
+import dev.lambdaurora.lambdynlights.engine.DynamicLightingSettings;
+import dev.lambdaurora.lambdynlights.engine.lookup.SpatialLookupLayout;
 import dev.lambdaurora.spruceui.option.SpruceCyclingOption;
 import dev.lambdaurora.spruceui.option.SpruceOption;
 import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.player.LocalPlayer;
 import net.minecraft.network.chat.Text;
+import net.minecraft.util.math.MathHelper;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,7 +36,7 @@ import java.util.List;
  * @version 4.0.0
  * @since 1.0.0
  */
-public class DynamicLightsConfig {
+public class DynamicLightsConfig implements DynamicLightingSettings {
 	private static final Logger LOGGER = LoggerFactory.getLogger("LambDynamicLights|Config");
 	private static final DynamicLightsMode DEFAULT_DYNAMIC_LIGHTS_MODE = DynamicLightsMode.FANCY;
 	private static final boolean DEFAULT_ENTITIES_LIGHT_SOURCE = true;
@@ -41,6 +44,21 @@ public class DynamicLightsConfig {
 	private static final boolean DEFAULT_WATER_SENSITIVE_CHECK = true;
 	private static final ExplosiveLightingMode DEFAULT_CREEPER_LIGHTING_MODE = ExplosiveLightingMode.SIMPLE;
 	private static final ExplosiveLightingMode DEFAULT_TNT_LIGHTING_MODE = ExplosiveLightingMode.OFF;
+	private static final int DEFAULT_MAX_LIGHT_ENTRIES = 16384;
+	public static final int MIN_MAX_LIGHT_ENTRIES = 1024;
+	public static final int MAX_MAX_LIGHT_ENTRIES = 131072;
+	private static final SpatialLookupLayout DEFAULT_LOOKUP_LAYOUT = SpatialLookupLayout.NEIGHBOR_PROBES;
+	private static final int DEFAULT_MAX_SECTION_REBUILDS_PER_TICK = 128;
+	public static final int MIN_MAX_SECTION_REBUILDS_PER_TICK = 8;
+	public static final int MAX_MAX_SECTION_REBUILDS_PER_TICK = 1024;
+	private static final int DEFAULT_NEAR_UPDATE_DISTANCE = 32;
+	private static final int DEFAULT_FAR_UPDATE_DISTANCE = 64;
+	public static final int MIN_UPDATE_DISTANCE = 8;
+	public static final int MAX_UPDATE_DISTANCE = 256;
+	private static final int DEFAULT_MID_UPDATE_INTERVAL = 4;
+	private static final int DEFAULT_FAR_UPDATE_INTERVAL = 16;
+	public static final int MIN_UPDATE_INTERVAL = 1;
+	public static final int MAX_UPDATE_INTERVAL = 100;
 	private static final int DEFAULT_DEBUG_CELL_DISPLAY_RADIUS = 0;
 	private static final int DEFAULT_DEBUG_LIGHT_LEVEL_RADIUS = 0;
 
@@ -59,6 +77,13 @@ public class DynamicLightsConfig {
 	private final BooleanSettingEntry debugDisplayHandlerBoundingBox;
 	private ExplosiveLightingMode creeperLightingMode;
 	private ExplosiveLightingMode tntLightingMode;
+	private int maxLightEntries;
+	private SpatialLookupLayout lookupLayout;
+	private int maxSectionRebuildsPerTick;
+	private int nearUpdateDistance;
+	private int farUpdateDistance;
+	private int midUpdateInterval;
+	private int farUpdateInterval;
 	private int debugCellDisplayRadius;
 	private int debugLightLevelRadius;
 
@@ -137,6 +162,32 @@ public class DynamicLightsConfig {
 				.orElse(DEFAULT_CREEPER_LIGHTING_MODE);
 		this.tntLightingMode = ExplosiveLightingMode.byId(this.config.getOrElse("light_sources.tnt", DEFAULT_TNT_LIGHTING_MODE.getName()))
 				.orElse(DEFAULT_TNT_LIGHTING_MODE);
+		this.maxLightEntries = MathHelper.clamp(
+				this.config.getOrElse("performance.max_light_entries", DEFAULT_MAX_LIGHT_ENTRIES),
+				MIN_MAX_LIGHT_ENTRIES, MAX_MAX_LIGHT_ENTRIES
+		);
+		this.lookupLayout = SpatialLookupLayout.byId(this.config.getOrElse("performance.lookup_layout", DEFAULT_LOOKUP_LAYOUT.getName()))
+				.orElse(DEFAULT_LOOKUP_LAYOUT);
+		this.maxSectionRebuildsPerTick = MathHelper.clamp(
+				this.config.getOrElse("performance.max_section_rebuilds_per_tick", DEFAULT_MAX_SECTION_REBUILDS_PER_TICK),
+				MIN_MAX_SECTION_REBUILDS_PER_TICK, MAX_MAX_SECTION_REBUILDS_PER_TICK
+		);
+		this.nearUpdateDistance = MathHelper.clamp(
+				this.config.getOrElse("performance.update_tiers.near_distance", DEFAULT_NEAR_UPDATE_DISTANCE),
+				MIN_UPDATE_DISTANCE, MAX_UPDATE_DISTANCE
+		);
+		this.farUpdateDistance = MathHelper.clamp(
+				this.config.getOrElse("performance.update_tiers.far_distance", DEFAULT_FAR_UPDATE_DISTANCE),
+				MIN_UPDATE_DISTANCE, MAX_UPDATE_DISTANCE
+		);
+		this.midUpdateInterval = MathHelper.clamp(
+				this.config.getOrElse("performance.update_tiers.mid_interval", DEFAULT_MID_UPDATE_INTERVAL),
+				MIN_UPDATE_INTERVAL, MAX_UPDATE_INTERVAL
+		);
+		this.farUpdateInterval = MathHelper.clamp(
+				this.config.getOrElse("performance.update_tiers.far_interval", DEFAULT_FAR_UPDATE_INTERVAL),
+				MIN_UPDATE_INTERVAL, MAX_UPDATE_INTERVAL
+		);
 		this.debugCellDisplayRadius = this.config.getOrElse("debug.cell_display_radius", DEFAULT_DEBUG_CELL_DISPLAY_RADIUS);
 		this.debugLightLevelRadius = this.config.getOrElse("debug.light_level_radius", DEFAULT_DEBUG_LIGHT_LEVEL_RADIUS);
 
@@ -167,6 +218,13 @@ public class DynamicLightsConfig {
 		this.settingEntries.forEach(SettingEntry::reset);
 		this.setCreeperLightingMode(DEFAULT_CREEPER_LIGHTING_MODE);
 		this.setTntLightingMode(DEFAULT_TNT_LIGHTING_MODE);
+		this.setMaxLightEntries(DEFAULT_MAX_LIGHT_ENTRIES);
+		this.setLookupLayout(DEFAULT_LOOKUP_LAYOUT);
+		this.setMaxSectionRebuildsPerTick(DEFAULT_MAX_SECTION_REBUILDS_PER_TICK);
+		this.setNearUpdateDistance(DEFAULT_NEAR_UPDATE_DISTANCE);
+		this.setFarUpdateDistance(DEFAULT_FAR_UPDATE_DISTANCE);
+		this.setMidUpdateInterval(DEFAULT_MID_UPDATE_INTERVAL);
+		this.setFarUpdateInterval(DEFAULT_FAR_UPDATE_INTERVAL);
 		this.setDebugCellDisplayRadius(DEFAULT_DEBUG_CELL_DISPLAY_RADIUS);
 		this.setDebugLightLevelRadius(DEFAULT_DEBUG_LIGHT_LEVEL_RADIUS);
 	}
@@ -180,6 +238,11 @@ public class DynamicLightsConfig {
 		return this.dynamicLightsMode;
 	}
 
+	@Override
+	public boolean isDynamicLightingEnabled() {
+		return this.dynamicLightsMode.isEnabled();
+	}
+
 	/**
 	 * Sets the dynamic lighting mode.
 	 *
@@ -188,6 +251,11 @@ public class DynamicLightsConfig {
 	public void setDynamicLightsMode(@NotNull DynamicLightsMode mode) {
 		if (this.dynamicLightsMode.isEnabled() != mode.isEnabled()) {
 			this.mod.shouldForceRefresh = true;
+
+			if (!mode.isEnabled()) {
+				// The forced refresh marks every lit section again.
+				this.mod.sectionRebuildScheduler.clear();
+			}
 		}
 
 		this.dynamicLightsMode = mode;
@@ -267,6 +335,135 @@ public class DynamicLightsConfig {
 		return this.guardianLaser;
 	}
 
+	/**
+	 * {@return the maximum amount of entries the dynamic lighting engine may hold}
+	 * <p>
+	 * The engine grows its storage as needed up to this limit, light sources past it are dropped.
+	 */
+	@Override
+	public int getMaxLightEntries() {
+		return this.maxLightEntries;
+	}
+
+	/**
+	 * Sets the maximum amount of entries the dynamic lighting engine may hold.
+	 *
+	 * @param maxLightEntries the maximum amount of entries
+	 */
+	public void setMaxLightEntries(int maxLightEntries) {
+		this.maxLightEntries = MathHelper.clamp(maxLightEntries, MIN_MAX_LIGHT_ENTRIES, MAX_MAX_LIGHT_ENTRIES);
+		this.config.set("performance.max_light_entries", this.maxLightEntries);
+	}
+
+	/**
+	 * {@return the layout of the spatial lookup of the dynamic lighting engine}
+	 */
+	@Override
+	public SpatialLookupLayout getLookupLayout() {
+		return this.lookupLayout;
+	}
+
+	/**
+	 * Sets the layout of the spatial lookup of the dynamic lighting engine.
+	 *
+	 * @param layout the layout of the spatial lookup
+	 */
+	public void setLookupLayout(@NotNull SpatialLookupLayout layout) {
+		this.lookupLayout = layout;
+		this.config.set("performance.lookup_layout", layout.getName());
+	}
+
+	/**
+	 * {@return the maximum amount of chunk sections dynamic lighting may rebuild each tick}
+	 * <p>
+	 * The sections past this limit are rebuilt during the next ticks, those closest to the camera first.
+	 */
+	public int getMaxSectionRebuildsPerTick() {
+		return this.maxSectionRebuildsPerTick;
+	}
+
+	/**
+	 * Sets the maximum amount of chunk sections dynamic lighting may rebuild each tick.
+	 *
+	 * @param maxSectionRebuildsPerTick the maximum amount of chunk sections
+	 */
+	public void setMaxSectionRebuildsPerTick(int maxSectionRebuildsPerTick) {
+		this.maxSectionRebuildsPerTick = MathHelper.clamp(maxSectionRebuildsPerTick,
+				MIN_MAX_SECTION_REBUILDS_PER_TICK, MAX_MAX_SECTION_REBUILDS_PER_TICK
+		);
+		this.config.set("performance.max_section_rebuilds_per_tick", this.maxSectionRebuildsPerTick);
+	}
+
+	/**
+	 * {@return the distance in blocks from the camera within which entity light sources update every tick}
+	 */
+	public int getNearUpdateDistance() {
+		return this.nearUpdateDistance;
+	}
+
+	/**
+	 * Sets the distance in blocks from the camera within which entity light sources update every tick.
+	 *
+	 * @param nearUpdateDistance the distance in blocks
+	 */
+	public void setNearUpdateDistance(int nearUpdateDistance) {
+		this.nearUpdateDistance = MathHelper.clamp(nearUpdateDistance, MIN_UPDATE_DISTANCE, MAX_UPDATE_DISTANCE);
+		this.config.set("performance.update_tiers.near_distance", this.nearUpdateDistance);
+	}
+
+	/**
+	 * {@return the distance in blocks from the camera within which entity light sources update every {@linkplain #getMidUpdateInterval() mid interval}}
+	 * <p>
+	 * The entity light sources further away update every {@linkplain #getFarUpdateInterval() far interval}.
+	 */
+	public int getFarUpdateDistance() {
+		return this.farUpdateDistance;
+	}
+
+	/**
+	 * Sets the distance in blocks from the camera within which entity light sources update every {@linkplain #getMidUpdateInterval() mid interval}.
+	 *
+	 * @param farUpdateDistance the distance in blocks
+	 */
+	public void setFarUpdateDistance(int farUpdateDistance) {
+		this.farUpdateDistance = MathHelper.clamp(farUpdateDistance, MIN_UPDATE_DISTANCE, MAX_UPDATE_DISTANCE);
+		this.config.set("performance.update_tiers.far_distance", this.farUpdateDistance);
+	}
+
+	/**
+	 * {@return the interval in ticks between the updates of the entity light sources between the near and far distances}
+	 */
+	public int getMidUpdateInterval() {
+		return this.midUpdateInterval;
+	}
+
+	/**
+	 * Sets the interval in ticks between the updates of the entity light sources between the near and far distances.
+	 *
+	 * @param midUpdateInterval the interval in ticks
+	 */
+	public void setMidUpdateInterval(int midUpdateInterval) {
+		this.midUpdateInterval = MathHelper.clamp(midUpdateInterval, MIN_UPDATE_INTERVAL, MAX_UPDATE_INTERVAL);
+		this.config.set("performance.update_tiers.mid_interval", this.midUpdateInterval);
+	}
+
+	/**
+	 * {@return the interval in ticks between the updates of the entity light sources past the far distance}
+	 */
+	public int getFarUpdateInterval() {
+		return this.farUpdateInterval;
+	}
+
+	/**
+	 * Sets the interval in ticks between the updates of the entity light sources past the far distance.
+	 *
+	 * @param farUpdateInterval the interval in ticks
+	 */
+	public void setFarUpdateInterval(int farUpdateInterval) {
+		this.farUpdateInterval = MathHelper.clamp(farUpdateInterval, MIN_UPDATE_INTERVAL, MAX_UPDATE_INTERVAL);
+		this.config.set("performance.update_tiers.far_interval", this.farUpdateInterval);
+	}
+
 	/**
 	 * {@return the active dynamic lighting cells debug setting holder}
 	 */
@@ -9,6 +9,7 @@
 
 package dev.lambdaurora.lambdynlights;
 
+import dev.lambdaurora.lambdynlights.accessor.DynamicLightHandlerHolder;
 import dev.lambdaurora.lambdynlights.accessor.WorldRendererAccessor;
 import dev.lambdaurora.lambdynlights.api.DynamicLightsContext;
 import dev.lambdaurora.lambdynlights.api.DynamicLightsInitializer;
@@ -17,17 +18,25 @@ import dev.lambdaurora.lambdynlights.api.entity.EntityLightSourceManager;
 import dev.lambdaurora.lambdynlights.api.item.ItemLightSourceManager;
 import dev.lambdaurora.lambdynlights.compat.CompatLayer;
 import dev.lambdaurora.lambdynlights.engine.DynamicLightBehaviorSources;
+import dev.lambdaurora.lambdynlights.engine.DynamicLightQuerySite;
+import dev.lambdaurora.lambdynlights.engine.DynamicLightUpdateTiers;
 import dev.lambdaurora.lambdynlights.engine.DynamicLightingEngine;
+import dev.lambdaurora.lambdynlights.engine.SectionRebuildScheduler;
+import dev.lambdaurora.lambdynlights.engine.lookup.FixedPointLightLevels;
 import dev.lambdaurora.lambdynlights.engine.source.DeferredDynamicLightSource;
 import dev.lambdaurora.lambdynlights.engine.source.DynamicLightSource;
 import dev.lambdaurora.lambdynlights.engine.source.EntityDynamicLightSource;
 import dev.lambdaurora.lambdynlights.engine.source.EntityDynamicLightSourceBehavior;
+import dev.lambdaurora.lambdynlights.jfr.ChunkRebuildBatchEvent;
+import dev.lambdaurora.lambdynlights.jfr.LightSourcePollingEvent;
+import dev.lambdaurora.lambdynlights.jfr.LuminanceEvaluationEvent;
 import dev.lambdaurora.lambdynlights.resource.entity.EntityLightSources;
 import dev.lambdaurora.lambdynlights.resource.item.ItemLightSources;
 import dev.lambdaurora.lambdynlights.util.DynamicLightBehaviorDebugRenderer;
 import dev.lambdaurora.lambdynlights.util.DynamicLightDebugRenderer;
 import dev.lambdaurora.lambdynlights.util.DynamicLightLevelDebugRenderer;
 import dev.yumi.commons.event.EventManager;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import net.fabricmc.api.ClientModInitializer;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.CommonLifecycleEvents;
@@ -44,8 +53,10 @@ import net.minecraft.client.renderer.LevelRenderer;
 import net.minecraft.client.renderer.LightTexture;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.ChunkSectionPos;
+import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.resources.Identifier;
 import net.minecraft.resources.io.ResourceType;
+import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.profiling.Profiler;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.LivingEntity;
@@ -60,7 +71,6 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Predicate;
 
 /**
@@ -75,16 +85,35 @@ public class LambDynLights implements ClientModInitializer, DynamicLightsContext
 	private static final Logger LOGGER = LoggerFactory.getLogger("LambDynamicLights");
 	public static final EventManager<Identifier> EVENT_MANAGER = new EventManager<>(LambDynLightsConstants.id("default"), Identifier::parse);
 	private static LambDynLights INSTANCE;
+	/**
+	 * The distance a light source has to move along an axis to trigger a rebuild of the chunk sections it lights.
+	 */
+	public static final double REBUILD_MOVEMENT_THRESHOLD = 0.1;
+	/**
+	 * The size of the grid the positions of light sources are snapped to, a light source which stays within the same cell of the grid
+	 * as the position its chunk sections were rebuilt for does not trigger a rebuild.
+	 * <p>
+	 * Two positions within the same cell are at most {@code 0.25 * sqrt(3) ~= 0.433} blocks apart, so the light they give to any block
+	 * differs by at most {@code 0.433 * 15 / 7.75 ~= 0.84} light level, or 13 sixteenths of a light level.
+	 */
+	public static final double REBUILD_SNAP_GRID = 0.25;
+	/**
+	 * The margin added to the light radius when gathering lit chunk sections, which covers the movements of light sources
+	 * too small to trigger a rebuild: up to the threshold or the snapping grid along each axis at once, rounded up to the thousandth.
+	 */
+	private static final double LIT_CHUNKS_MARGIN =
+			Math.ceil(Math.sqrt(3) * Math.max(REBUILD_MOVEMENT_THRESHOLD, REBUILD_SNAP_GRID) * 1000.0) / 1000.0;
 
 	public final DynamicLightsConfig config = new DynamicLightsConfig(this);
 	private final ItemLightSources itemLightSources = new ItemLightSources();
 	private final EntityLightSources entityLightSources = new EntityLightSources(this.itemLightSources);
 	private final DynamicLightBehaviorSources dynamicLightBehaviorSources = new DynamicLightBehaviorSources(this);
 	public final DynamicLightingEngine engine = new DynamicLightingEngine(this.config);
+	public final SectionRebuildScheduler sectionRebuildScheduler = new SectionRebuildScheduler();
+	public final DynamicLightUpdateTiers updateTiers = new DynamicLightUpdateTiers();
 	private final Set<DynamicLightSource> dynamicLightSources = new HashSet<>();
 	private final Set<DynamicLightSource> toAdd = new HashSet<>();
 	private final List<DynamicLightSource> toClear = new ArrayList<>();
-	private final ReentrantReadWriteLock lightSourcesLock = new ReentrantReadWriteLock();
 
 	public final DynamicLightDebugRenderer.SectionRebuild sectionRebuildDebugRenderer = new DynamicLightDebugRenderer.SectionRebuild(this);
 	public final DynamicLightLevelDebugRenderer dynamicLightLevelDebugRenderer = new DynamicLightLevelDebugRenderer(this);
@@ -124,50 +153,105 @@ public class LambDynLights implements ClientModInitializer, DynamicLightsContext
 			}
 
 			this.shouldTick = shouldTick || this.shouldForceRefresh;
+
+			var camera = Minecraft.getInstance().getCameraEntity();
+			if (camera != null) {
+				this.updateTiers.startTick(this.config, camera.getX(), camera.getEyeY(), camera.getZ());
+			} else {
+				this.updateTiers.startTick(this.config, 0, 0, 0);
+			}
 		});
 
 		ClientTickEvents.END_WORLD_TICK.register(level -> {
 			var renderer = Minecraft.getInstance().levelRenderer;
 
-			this.lightSourcesLock.writeLock().lock();
+			var camera = Minecraft.getInstance().getCameraEntity();
+
 			if (this.config.getDynamicLightsMode().isEnabled()) {
 				Profiler.get().push("dynamic_lighting_compute_spatial_lookup");
-				this.engine.computeSpatialLookup(this.dynamicLightSources);
+				if (camera != null) {
+					this.engine.computeSpatialLookup(this.dynamicLightSources, camera.getX(), camera.getEyeY(), camera.getZ());
+				} else {
+					this.engine.computeSpatialLookup(this.dynamicLightSources, 0, 0, 0);
+				}
 				Profiler.get().pop();
 			}
-			this.toClear.forEach(source -> {
-				source.getDynamicLightChunksToRebuild(true).forEach(chunk -> this.scheduleChunkRebuild(renderer, chunk));
-			});
+			var clearBatch = new ChunkRebuildBatchEvent();
+			clearBatch.begin();
+			for (var source : this.toClear) {
+				clearBatch.sections += this.sectionRebuildScheduler.schedule(source, true);
+			}
+			this.commitChunkRebuildBatch(clearBatch, ChunkRebuildBatchEvent.CAUSE_REMOVED, this.toClear.size());
 			this.toClear.clear();
-			this.lightSourcesLock.writeLock().unlock();
 
 			this.lastUpdateCount = 0;
 
 			if (this.shouldTick) {
+				var polling = new LightSourcePollingEvent();
+				var updateBatch = new ChunkRebuildBatchEvent();
+				polling.begin();
+				updateBatch.begin();
+
 				var it = this.dynamicLightSources.iterator();
 				while (it.hasNext()) {
 					var lightSource = it.next();
+					polling.polled++;
 
 					// In case of light sources controlled by a DynamicLightBehavior, they might require polling to be removed.
 					if (lightSource instanceof DeferredDynamicLightSource(var behavior)) {
 						if (behavior.isRemoved()) {
 							this.toClear.add(lightSource);
 							it.remove();
+							polling.removed++;
 							continue;
 						}
 					}
 
-					var chunks = lightSource.getDynamicLightChunksToRebuild(this.shouldForceRefresh || this.toAdd.contains(lightSource));
+					boolean forced = this.shouldForceRefresh || this.toAdd.contains(lightSource);
 
-					if (!chunks.isEmpty()) {
-						chunks.forEach(chunk -> this.scheduleChunkRebuild(renderer, chunk));
+					// Entity light sources far away from the camera only update every few ticks.
+					if (lightSource instanceof EntityDynamicLightSource entitySource && lightSource instanceof Entity entity) {
+						if (!this.updateTiers.poll(entitySource, entity.getId()) && !forced) {
+							continue;
+						}
+					}
+
+					int sections = this.sectionRebuildScheduler.schedule(lightSource, forced);
+
+					if (sections != 0) {
+						updateBatch.sections += sections;
 						this.lastUpdateCount++;
 					}
 				}
 
 				this.toAdd.clear();
+
+				polling.updated = this.lastUpdateCount;
+				polling.commit();
+				this.commitChunkRebuildBatch(updateBatch, ChunkRebuildBatchEvent.CAUSE_UPDATED, this.lastUpdateCount);
 			}
 
+			var releaseBatch = new ChunkRebuildBatchEvent();
+			releaseBatch.begin();
+			if (camera != null) {
+				var look = camera.getViewVector(1.f);
+				this.sectionRebuildScheduler.release(
+						this.config.getMaxSectionRebuildsPerTick(),
+						camera.getX(), camera.getEyeY(), camera.getZ(),
+						look.x, look.y, look.z,
+						chunk -> this.scheduleChunkRebuild(renderer, chunk)
+				);
+			} else {
+				this.sectionRebuildScheduler.release(
+						this.config.getMaxSectionRebuildsPerTick(),
+						0, 0, 0,
+						0, 0, 0,
+						chunk -> this.scheduleChunkRebuild(renderer, chunk)
+				);
+			}
+			releaseBatch.sections = this.sectionRebuildScheduler.getLastReleasedCount();
+			this.commitChunkRebuildBatch(releaseBatch, ChunkRebuildBatchEvent.CAUSE_RELEASED, 0);
+
 			this.sectionRebuildDebugRenderer.tick();
 
 			this.shouldForceRefresh = false;
@@ -248,6 +332,13 @@ public class LambDynLights implements ClientModInitializer, DynamicLightsContext
 		return this.shouldTick;
 	}
 
+	/**
+	 * {@return {@code true} if every light source is refreshed during the current tick, or {@code false} otherwise}
+	 */
+	public boolean shouldForceRefresh() {
+		return this.shouldForceRefresh;
+	}
+
 	/**
 	 * Returns the last number of dynamic light source updates.
 	 *
@@ -257,19 +348,33 @@ public class LambDynLights implements ClientModInitializer, DynamicLightsContext
 		return this.lastUpdateCount;
 	}
 
+	/**
+	 * Logs every bucket of the latency histograms of the dynamic lighting engine.
+	 */
+	public void dumpLatencyHistograms() {
+		log(LOGGER, this.engine.dumpLatencyHistograms());
+	}
+
 	/**
 	 * Returns the lightmap with combined light levels.
 	 *
 	 * @param level the level in which the light is computed
 	 * @param pos the position
 	 * @param lightmap the vanilla lightmap coordinates
+	 * @param site where the query comes from
 	 * @return the modified lightmap coordinates
 	 */
-	public int getLightmapWithDynamicLight(@NotNull BlockAndTintGetter level, @NotNull BlockPos pos, int lightmap) {
-		if (!(level instanceof ClientLevel)) this.lightSourcesLock.readLock().lock();
-		double light = this.getDynamicLightLevel(pos);
-		if (!(level instanceof ClientLevel)) this.lightSourcesLock.readLock().unlock();
-		return this.getLightmapWithDynamicLight(light, lightmap);
+	public int getLightmapWithDynamicLight(
+			@NotNull BlockAndTintGetter level, @NotNull BlockPos pos, int lightmap, @NotNull DynamicLightQuerySite site
+	) {
+		// The spatial lookup is published as an immutable snapshot, chunk builder threads can read it without locking.
+		if (level instanceof ClientLevel) {
+			// The same positions get queried many times per frame, most of them are read from the voxel cache.
+			return FixedPointLightLevels.applyToLightmap(this.engine.getCachedDynamicLightLevel(pos.getX(), pos.getY(), pos.getZ(), site), lightmap);
+		}
+
+		// Chunk builder threads query every block of a section, so they read from the light levels of the whole section.
+		return FixedPointLightLevels.applyToLightmap(this.engine.getSectionDynamicLightLevel(pos.getX(), pos.getY(), pos.getZ(), site), lightmap);
 	}
 
 	/**
@@ -303,7 +408,7 @@ public class LambDynLights implements ClientModInitializer, DynamicLightsContext
 	 * @return the dynamic light level at the specified position
 	 */
 	public double getDynamicLightLevel(@NotNull BlockPos pos) {
-		return this.engine.getDynamicLightLevel(pos);
+		return this.engine.getDynamicLightLevel(pos.getX(), pos.getY(), pos.getZ(), DynamicLightQuerySite.OTHER);
 	}
 
 	/**
@@ -359,6 +464,9 @@ public class LambDynLights implements ClientModInitializer, DynamicLightsContext
 	 * Clears light sources.
 	 */
 	public void clearLightSources() {
+		// The dirty sections belong to the light sources being cleared, the cleared light sources mark their own sections again.
+		this.sectionRebuildScheduler.clear();
+
 		var chunkProviders = this.dynamicLightSources.iterator();
 		DynamicLightSource it;
 		while (chunkProviders.hasNext()) {
@@ -461,6 +569,21 @@ public class LambDynLights implements ClientModInitializer, DynamicLightsContext
 		logger.error(msg, args);
 	}
 
+	/**
+	 * Commits the given chunk rebuild batch event if it scheduled any chunk section rebuild.
+	 *
+	 * @param event the event to commit
+	 * @param cause the cause of the chunk section rebuilds
+	 * @param lightSources the number of light sources which scheduled chunk section rebuilds
+	 */
+	private void commitChunkRebuildBatch(ChunkRebuildBatchEvent event, String cause, int lightSources) {
+		if (event.sections > 0) {
+			event.cause = cause;
+			event.lightSources = lightSources;
+			event.commit();
+		}
+	}
+
 	/**
 	 * Schedules a chunk rebuild at the specified chunk position.
 	 *
@@ -477,6 +600,62 @@ public class LambDynLights implements ClientModInitializer, DynamicLightsContext
 			((WorldRendererAccessor) renderer).lambdynlights$scheduleChunkRebuild(x, y, z, false);
 	}
 
+	/**
+	 * Gathers the chunk sections lit by a point light.
+	 * <p>
+	 * A chunk section is gathered if the sphere lit by the point light reaches any of its blocks or any block next to it,
+	 * since the faces on the border of a section sample the light of the neighboring blocks.
+	 *
+	 * @param chunks the chunk set to add relevant chunks to
+	 * @param x the X-coordinate of the point light
+	 * @param y the Y-coordinate of the point light
+	 * @param z the Z-coordinate of the point light
+	 * @param luminance the luminance of the point light
+	 */
+	public static void gatherLitChunks(LongSet chunks, double x, double y, double z, int luminance) {
+		if (luminance <= 0) {
+			return;
+		}
+
+		double radius = DynamicLightingEngine.getLightRadius(luminance) + LIT_CHUNKS_MARGIN;
+		double radiusSquared = radius * radius;
+
+		int startX = ChunkSectionPos.blockToSectionCoord(x - radius - 1.5);
+		int startY = ChunkSectionPos.blockToSectionCoord(y - radius - 1.5);
+		int startZ = ChunkSectionPos.blockToSectionCoord(z - radius - 1.5);
+		int endX = ChunkSectionPos.blockToSectionCoord(x + radius + 0.5);
+		int endY = ChunkSectionPos.blockToSectionCoord(y + radius + 0.5);
+		int endZ = ChunkSectionPos.blockToSectionCoord(z + radius + 0.5);
+
+		for (int sectionX = startX; sectionX <= endX; sectionX++) {
+			double dx = distanceToSectionCenters(x, sectionX);
+
+			for (int sectionY = startY; sectionY <= endY; sectionY++) {
+				double dy = distanceToSectionCenters(y, sectionY);
+
+				for (int sectionZ = startZ; sectionZ <= endZ; sectionZ++) {
+					double dz = distanceToSectionCenters(z, sectionZ);
+
+					if (dx * dx + dy * dy + dz * dz < radiusSquared) {
+						chunks.add(ChunkSectionPos.asLong(sectionX, sectionY, sectionZ));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * {@return the distance along an axis from the given coordinate to the closest block center of the given section,
+	 * or of the blocks next to it}
+	 *
+	 * @param coordinate the coordinate
+	 * @param section the section coordinate along the same axis
+	 */
+	private static double distanceToSectionCenters(double coordinate, int section) {
+		int start = ChunkSectionPos.sectionToBlockCoord(section);
+		return MathHelper.clamp(coordinate, start - 0.5, start + 16.5) - coordinate;
+	}
+
 	/**
 	 * Updates the dynamic lights tracking.
 	 *
@@ -524,6 +703,25 @@ public class LambDynLights implements ClientModInitializer, DynamicLightsContext
 		return luminance;
 	}
 
+	/**
+	 * Returns whether the given entity can light up or not.
+	 *
+	 * @param entity the entity
+	 * @param <T> the type of the entity
+	 * @return {@code true} if the entity can light up, or {@code false} otherwise
+	 */
+	public static <T extends Entity> boolean canLightUp(T entity) {
+		if (entity == Minecraft.getInstance().player) {
+			if (!INSTANCE.config.getSelfLightSource().get())
+				return false;
+		} else if (!INSTANCE.config.getEntitiesLightSource().get()) {
+			return false;
+		}
+
+		var setting = DynamicLightHandlerHolder.cast(entity.getType()).lambdynlights$getSetting();
+		return !(setting == null || !setting.get());
+	}
+
 	/**
 	 * Returns the luminance from an entity.
 	 *
@@ -537,9 +735,22 @@ public class LambDynLights implements ClientModInitializer, DynamicLightsContext
 		if (entity == Minecraft.getInstance().player && !INSTANCE.config.getSelfLightSource().get())
 			return 0;
 
-		if (!DynamicLightingEngine.canLightUp(entity))
+		if (!canLightUp(entity))
 			return 0;
 
+		if (LuminanceEvaluationEvent.shouldSample()) {
+			var event = new LuminanceEvaluationEvent();
+
+			if (event.isEnabled()) {
+				event.begin();
+				event.luminance = INSTANCE.entityLightSources.getLuminance(entity);
+				event.end();
+				event.entityType = BuiltInRegistries.ENTITY_TYPE.getId(entity.getType()).toString();
+				event.commit();
+				return event.luminance;
+			}
+		}
+
 		return INSTANCE.entityLightSources.getLuminance(entity);
 	}
 
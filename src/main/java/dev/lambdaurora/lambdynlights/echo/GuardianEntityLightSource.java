@@ -11,7 +11,6 @@ package dev.lambdaurora.lambdynlights.echo;
 
 import dev.lambdaurora.lambdynlights.LambDynLights;
 import dev.lambdaurora.lambdynlights.api.behavior.LineLightBehavior;
-import dev.lambdaurora.lambdynlights.engine.DynamicLightingEngine;
 import net.minecraft.world.entity.monster.Guardian;
 import org.joml.Vector3d;
 
@@ -37,7 +36,7 @@ public interface GuardianEntityLightSource {
 			return;
 		}
 
-		if (!DynamicLightingEngine.canLightUp(guardian)) {
+		if (!LambDynLights.canLightUp(guardian)) {
 			LambDynLights.get().dynamicLightBehaviorManager().remove(lightSource.lambdynlights$getDynamicLightBeam());
 			lightSource.lambdynlights$setDynamicLightBeam(null);
 			return;
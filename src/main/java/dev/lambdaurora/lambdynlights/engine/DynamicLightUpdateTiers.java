@@ -0,0 +1,150 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of LambDynamicLights.
+ *
+ * Licensed under the Lambda License. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.lambdynlights.engine;
+
+import dev.lambdaurora.lambdynlights.DynamicLightsConfig;
+import dev.lambdaurora.lambdynlights.engine.source.EntityDynamicLightSource;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Represents the update tiers of entity light sources, which make the light sources far away from the camera update less often.
+ * <p>
+ * The light sources within the near distance of the camera update every tick, those within the far distance
+ * update every mid interval ticks, and the others every far interval ticks.
+ * Each light source is given a stagger, so the light sources of a tier update on different ticks
+ * and their work is spread evenly.
+ *
+ * @author LambdAurora
+ * @version 4.0.0
+ * @since 4.0.0
+ */
+public final class DynamicLightUpdateTiers {
+	public static final int NEAR = 0;
+	public static final int MID = 1;
+	public static final int FAR = 2;
+	private static final int TIER_COUNT = 3;
+
+	private final int[] intervals = new int[TIER_COUNT];
+	private double nearDistanceSquared;
+	private double farDistanceSquared;
+	private double cameraX;
+	private double cameraY;
+	private double cameraZ;
+	private int currentTick = 0;
+
+	private final int[] polled = new int[TIER_COUNT];
+	private final int[] lastPolled = new int[TIER_COUNT];
+	private int skipped = 0;
+	private int lastSkipped = 0;
+
+	/**
+	 * Starts a new tick.
+	 *
+	 * @param config the configuration to read the tiers from
+	 * @param cameraX the X-coordinate of the camera
+	 * @param cameraY the Y-coordinate of the camera
+	 * @param cameraZ the Z-coordinate of the camera
+	 */
+	public void startTick(@NotNull DynamicLightsConfig config, double cameraX, double cameraY, double cameraZ) {
+		System.arraycopy(this.polled, 0, this.lastPolled, 0, TIER_COUNT);
+		Arrays.fill(this.polled, 0);
+		this.lastSkipped = this.skipped;
+		this.skipped = 0;
+
+		double nearDistance = config.getNearUpdateDistance();
+		double farDistance = Math.max(config.getFarUpdateDistance(), nearDistance);
+		this.nearDistanceSquared = nearDistance * nearDistance;
+		this.farDistanceSquared = farDistance * farDistance;
+		this.intervals[NEAR] = 1;
+		this.intervals[MID] = config.getMidUpdateInterval();
+		this.intervals[FAR] = config.getFarUpdateInterval();
+
+		this.cameraX = cameraX;
+		this.cameraY = cameraY;
+		this.cameraZ = cameraZ;
+		this.currentTick++;
+	}
+
+	/**
+	 * {@return the update tier of the given position}
+	 *
+	 * @param x the X-coordinate
+	 * @param y the Y-coordinate
+	 * @param z the Z-coordinate
+	 */
+	public int getTier(double x, double y, double z) {
+		double dx = x - this.cameraX;
+		double dy = y - this.cameraY;
+		double dz = z - this.cameraZ;
+		double distanceSquared = dx * dx + dy * dy + dz * dz;
+
+		if (distanceSquared <= this.nearDistanceSquared) {
+			return NEAR;
+		} else if (distanceSquared <= this.farDistanceSquared) {
+			return MID;
+		} else {
+			return FAR;
+		}
+	}
+
+	/**
+	 * {@return {@code true} if the given light source is due to update during the current tick, or {@code false} otherwise}
+	 *
+	 * @param source the light source
+	 * @param stagger the stagger of the light source, which should differ between nearby light sources
+	 */
+	public boolean shouldUpdate(@NotNull EntityDynamicLightSource source, int stagger) {
+		int tier = this.getTier(source.getDynamicLightX(), source.getDynamicLightY(), source.getDynamicLightZ());
+		return this.isDue(tier, stagger);
+	}
+
+	/**
+	 * Polls the given light source for the current tick, counting it in the statistics of its tier.
+	 *
+	 * @param source the light source
+	 * @param stagger the stagger of the light source, which should differ between nearby light sources
+	 * @return {@code true} if the light source is due to update during the current tick, or {@code false} otherwise
+	 * @see #shouldUpdate(EntityDynamicLightSource, int)
+	 */
+	public boolean poll(@NotNull EntityDynamicLightSource source, int stagger) {
+		int tier = this.getTier(source.getDynamicLightX(), source.getDynamicLightY(), source.getDynamicLightZ());
+		boolean due = this.isDue(tier, stagger);
+
+		this.polled[tier]++;
+		if (!due) {
+			this.skipped++;
+		}
+
+		return due;
+	}
+
+	private boolean isDue(int tier, int stagger) {
+		int interval = this.intervals[tier];
+		return interval <= 1 || Math.floorMod(this.currentTick + stagger, interval) == 0;
+	}
+
+	/**
+	 * {@return the number of light sources polled in the given tier during the last tick}
+	 *
+	 * @param tier the update tier
+	 */
+	public int getLastPolledCount(int tier) {
+		return this.lastPolled[tier];
+	}
+
+	/**
+	 * {@return the number of light sources polled during the last tick which were not due to update}
+	 */
+	public int getLastSkippedCount() {
+		return this.lastSkipped;
+	}
+}
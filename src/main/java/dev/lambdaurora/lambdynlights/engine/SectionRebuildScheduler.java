@@ -0,0 +1,216 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of LambDynamicLights.
+ *
+ * Licensed under the Lambda License. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.lambdynlights.engine;
+
+import dev.lambdaurora.lambdynlights.engine.source.DynamicLightSource;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.core.ChunkSectionPos;
+import net.minecraft.util.math.MathHelper;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Represents the scheduler of the chunk section rebuilds caused by dynamic lighting.
+ * <p>
+ * Light sources mark the chunk sections they affect as dirty, and the scheduler releases at most a given budget of them
+ * to the renderer each tick, so a burst of updates does not stall the chunk builder.
+ * The sections which do not fit in the budget roll over to the next ticks.
+ * <p>
+ * The sections marked by every light source during a tick are coalesced into a single set before being queued,
+ * so light sources standing close to each other only rebuild their shared sections once.
+ * <p>
+ * When over budget, the sections in front of the camera are released first, then by increasing distance to the camera.
+ * The priority of a section doubles with every tick it waits, so sections behind or far away from the camera
+ * are never delayed for long.
+ *
+ * @author LambdAurora
+ * @version 4.0.0
+ * @since 4.0.0
+ */
+public final class SectionRebuildScheduler {
+	/**
+	 * The penalty given to the squared distance in sections of the sections behind the camera,
+	 * larger than the squared distance of any section within render distance.
+	 */
+	private static final long BEHIND_PENALTY = 1L << 16;
+	/**
+	 * The half-diagonal of a section in blocks, the sections this close to the plane of the camera count as in front of it.
+	 */
+	private static final double SECTION_HALF_DIAGONAL = Math.sqrt(3 * 8 * 8);
+	private static final int MAX_AGE_SHIFT = 24;
+
+	/**
+	 * The dirty sections, alongside the tick they were marked dirty at.
+	 */
+	private final Long2IntOpenHashMap pending = new Long2IntOpenHashMap();
+	/**
+	 * The sections marked dirty by the light source being gathered.
+	 */
+	private final LongOpenHashSet sourceSections = new LongOpenHashSet();
+	/**
+	 * The sections marked dirty during the current tick.
+	 */
+	private final LongOpenHashSet tickSections = new LongOpenHashSet();
+	private int rawCount = 0;
+	private int lastRawCount = 0;
+	private int lastDirtyCount = 0;
+	private long[] sections = new long[256];
+	private long[] order = new long[256];
+	private int currentTick = 0;
+	private int lastReleasedCount = 0;
+
+	/**
+	 * Marks the chunk sections the given light source requires to rebuild as dirty.
+	 *
+	 * @param source the light source
+	 * @param forced {@code true} if the light source must mark its sections even if it has not changed,
+	 * or {@code false} otherwise
+	 * @return the number of sections the light source marked as dirty
+	 * @see DynamicLightSource#gatherDynamicLightChunksToRebuild(boolean, LongSet)
+	 */
+	public int schedule(DynamicLightSource source, boolean forced) {
+		this.sourceSections.clear();
+		source.gatherDynamicLightChunksToRebuild(forced, this.sourceSections);
+
+		int count = this.sourceSections.size();
+		this.rawCount += count;
+		this.tickSections.addAll(this.sourceSections);
+		return count;
+	}
+
+	/**
+	 * Releases the dirty sections to rebuild during the current tick.
+	 *
+	 * @param budget the maximum amount of sections to release
+	 * @param cameraX the X-coordinate of the camera
+	 * @param cameraY the Y-coordinate of the camera
+	 * @param cameraZ the Z-coordinate of the camera
+	 * @param lookX the X-coordinate of the direction the camera looks at
+	 * @param lookY the Y-coordinate of the direction the camera looks at
+	 * @param lookZ the Z-coordinate of the direction the camera looks at
+	 * @param rebuild the action to rebuild a released section
+	 */
+	public void release(
+			int budget,
+			double cameraX, double cameraY, double cameraZ,
+			double lookX, double lookY, double lookZ,
+			LongConsumer rebuild
+	) {
+		this.lastRawCount = this.rawCount;
+		this.lastDirtyCount = this.tickSections.size();
+		this.rawCount = 0;
+
+		// A section which is already dirty keeps its place in the queue.
+		for (var it = this.tickSections.iterator(); it.hasNext(); ) {
+			this.pending.putIfAbsent(it.nextLong(), this.currentTick);
+		}
+		this.tickSections.clear();
+
+		int size = this.pending.size();
+
+		if (size <= budget) {
+			// Everything fits, no need to prioritize.
+			this.pending.keySet().forEach(rebuild);
+			this.pending.clear();
+		} else {
+			if (this.sections.length < size) {
+				this.sections = new long[Math.max(size, this.sections.length * 2)];
+				this.order = new long[this.sections.length];
+			}
+
+			int cameraSectionX = MathHelper.floor(cameraX) >> 4;
+			int cameraSectionY = MathHelper.floor(cameraY) >> 4;
+			int cameraSectionZ = MathHelper.floor(cameraZ) >> 4;
+
+			int i = 0;
+			for (var entry : this.pending.long2IntEntrySet()) {
+				long sectionPos = entry.getLongKey();
+				int x = ChunkSectionPos.x(sectionPos);
+				int y = ChunkSectionPos.y(sectionPos);
+				int z = ChunkSectionPos.z(sectionPos);
+
+				long distanceSquared = square(x - cameraSectionX) + square(y - cameraSectionY) + square(z - cameraSectionZ);
+
+				double toCenterX = (x << 4) + 8 - cameraX;
+				double toCenterY = (y << 4) + 8 - cameraY;
+				double toCenterZ = (z << 4) + 8 - cameraZ;
+				if (toCenterX * lookX + toCenterY * lookY + toCenterZ * lookZ < -SECTION_HALF_DIAGONAL) {
+					distanceSquared += BEHIND_PENALTY;
+				}
+
+				int age = Math.min(this.currentTick - entry.getIntValue(), MAX_AGE_SHIFT);
+				long priority = Math.min(distanceSquared >> age, Integer.MAX_VALUE);
+
+				this.sections[i] = sectionPos;
+				// The priority goes in the high bits so sorting the keys sorts the indices of the sections by priority.
+				this.order[i] = priority << 32 | i;
+				i++;
+			}
+
+			Arrays.sort(this.order, 0, size);
+
+			for (i = 0; i < budget; i++) {
+				long sectionPos = this.sections[(int) this.order[i]];
+				rebuild.accept(sectionPos);
+				this.pending.remove(sectionPos);
+			}
+
+			size = budget;
+		}
+
+		this.lastReleasedCount = size;
+		this.currentTick++;
+	}
+
+	/**
+	 * Drops every dirty section, such as when the level changes or when dynamic lighting is turned off.
+	 */
+	public void clear() {
+		this.pending.clear();
+		this.tickSections.clear();
+		this.rawCount = 0;
+	}
+
+	/**
+	 * {@return the number of sections marked dirty by light sources during the last tick, counting the sections
+	 * marked by several light sources once per light source}
+	 */
+	public int getLastRawCount() {
+		return this.lastRawCount;
+	}
+
+	/**
+	 * {@return the number of distinct sections marked dirty by light sources during the last tick}
+	 */
+	public int getLastDirtyCount() {
+		return this.lastDirtyCount;
+	}
+
+	/**
+	 * {@return the number of dirty sections waiting to be released}
+	 */
+	public int getQueueDepth() {
+		return this.pending.size();
+	}
+
+	/**
+	 * {@return the number of sections released during the last tick}
+	 */
+	public int getLastReleasedCount() {
+		return this.lastReleasedCount;
+	}
+
+	private static long square(long value) {
+		return value * value;
+	}
+}
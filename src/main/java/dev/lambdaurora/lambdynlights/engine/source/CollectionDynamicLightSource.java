@@ -9,66 +9,96 @@
 
 package dev.lambdaurora.lambdynlights.engine.source;
 
+import dev.lambdaurora.lambdynlights.LambDynLights;
 import dev.lambdaurora.lambdynlights.engine.DynamicLightingEngine;
-import dev.lambdaurora.lambdynlights.engine.lookup.SpatialLookupCollectionEntry;
-import dev.lambdaurora.lambdynlights.engine.lookup.SpatialLookupEntry;
-import it.unimi.dsi.fastutil.bytes.ByteArrayList;
-import it.unimi.dsi.fastutil.bytes.ByteList;
-import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
-import it.unimi.dsi.fastutil.longs.LongArrayList;
+import dev.lambdaurora.lambdynlights.engine.lookup.SpatialLookupSink;
 import it.unimi.dsi.fastutil.longs.LongList;
-import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import it.unimi.dsi.fastutil.longs.LongSet;
 import net.minecraft.core.BlockPos;
+import net.minecraft.util.math.MathHelper;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.stream.Stream;
 
 public class CollectionDynamicLightSource implements DynamicLightSource {
 	private boolean dirty;
 	private Collection<Entry> entries;
+	/**
+	 * The bounds of the entries, the entries of a collection never move so they are only computed once.
+	 */
+	private BlockPos start;
+	private BlockPos end;
+	private int maxLuminance;
 
 	public CollectionDynamicLightSource(Collection<Entry> entries) {
 		this.entries = entries;
 		this.dirty = true;
 	}
 
-	public Stream<SpatialLookupEntry> splitIntoDynamicLightEntries() {
-		record Data(LongList position, ByteList luminance) {}
-		var cellKeyToData = new Int2ObjectOpenHashMap<Data>();
+	@Override
+	public void splitIntoDynamicLightEntries(@NotNull SpatialLookupSink sink) {
+		for (var entry : this.entries) {
+			sink.acceptPoint(
+					DynamicLightingEngine.cellKeyAt(entry.x(), entry.y(), entry.z()),
+					entry.x() + 0.5, entry.y() + 0.5, entry.z() + 0.5,
+					entry.luminance()
+			);
+		}
+	}
+
+	private void computeBounds() {
+		int startX = Integer.MAX_VALUE, startY = Integer.MAX_VALUE, startZ = Integer.MAX_VALUE;
+		int endX = Integer.MIN_VALUE, endY = Integer.MIN_VALUE, endZ = Integer.MIN_VALUE;
+		int maxLuminance = 0;
 
 		for (var entry : this.entries) {
-			int cellKey = DynamicLightingEngine.hashAt(entry.x(), entry.y(), entry.z());
+			startX = Math.min(startX, entry.x());
+			startY = Math.min(startY, entry.y());
+			startZ = Math.min(startZ, entry.z());
+			endX = Math.max(endX, entry.x());
+			endY = Math.max(endY, entry.y());
+			endZ = Math.max(endZ, entry.z());
+			maxLuminance = Math.max(maxLuminance, entry.luminance());
+		}
+
+		this.start = new BlockPos(startX, startY, startZ);
+		this.end = new BlockPos(endX, endY, endZ);
+		this.maxLuminance = maxLuminance;
+	}
 
-			var data = cellKeyToData.computeIfAbsent(cellKey, k -> new Data(new LongArrayList(), new ByteArrayList()));
+	@Override
+	public boolean hasSpatialLookupEntriesChanged(@NotNull LongList previousCellKeys) {
+		// The entries of a collection never move nor change their luminance.
+		return false;
+	}
+
+	@Override
+	public double getDynamicLightPriority(double cameraX, double cameraY, double cameraZ) {
+		if (this.start == null) {
+			this.computeBounds();
+		}
 
-			data.position.add(BlockPos.asLong(entry.x(), entry.y(), entry.z()));
-			data.luminance.add((byte) entry.luminance());
+		if (this.maxLuminance == 0) {
+			return DynamicLightSource.computePriority(Kind.COLLECTION, 0, Double.MAX_VALUE);
 		}
 
-		return cellKeyToData.int2ObjectEntrySet()
-				.stream()
-				.map(entry -> new SpatialLookupCollectionEntry(
-						entry.getIntKey(),
-						entry.getValue().position.toLongArray(),
-						entry.getValue().luminance.toByteArray()
-				));
+		double dx = MathHelper.clamp(cameraX, this.start.getX(), this.end.getX() + 1) - cameraX;
+		double dy = MathHelper.clamp(cameraY, this.start.getY(), this.end.getY() + 1) - cameraY;
+		double dz = MathHelper.clamp(cameraZ, this.start.getZ(), this.end.getZ() + 1) - cameraZ;
+
+		return DynamicLightSource.computePriority(Kind.COLLECTION, this.maxLuminance, dx * dx + dy * dy + dz * dz);
 	}
 
 	@Override
-	public LongSet getDynamicLightChunksToRebuild(boolean forced) {
+	public void gatherDynamicLightChunksToRebuild(boolean forced, @NotNull LongSet chunks) {
 		if (!forced && !this.dirty) {
-			return LongSet.of();
+			return;
 		}
 
-		var chunks = new LongOpenHashSet();
-
 		for (var entry : this.entries) {
-			DynamicLightSource.gatherClosestChunks(chunks, entry.x, entry.y, entry.z);
+			LambDynLights.gatherLitChunks(chunks, entry.x + 0.5, entry.y + 0.5, entry.z + 0.5, entry.luminance);
 		}
-
-		return chunks;
 	}
 
 	public static CollectionDynamicLightSource cuboid(int startX, int startY, int startZ, int endX, int endY, int endZ, int luminance) {
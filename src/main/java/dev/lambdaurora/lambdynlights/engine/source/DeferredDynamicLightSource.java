@@ -11,30 +11,35 @@ package dev.lambdaurora.lambdynlights.engine.source;
 
 import dev.lambdaurora.lambdynlights.api.behavior.DynamicLightBehavior;
 import dev.lambdaurora.lambdynlights.engine.DynamicLightingEngine;
-import dev.lambdaurora.lambdynlights.engine.lookup.SpatialLookupDeferredEntry;
 import dev.lambdaurora.lambdynlights.engine.lookup.SpatialLookupEntry;
-import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import dev.lambdaurora.lambdynlights.engine.lookup.SpatialLookupSink;
+import it.unimi.dsi.fastutil.longs.LongList;
 import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.core.BlockPos;
 import net.minecraft.core.ChunkSectionPos;
 import net.minecraft.util.math.MathHelper;
-
-import java.util.ArrayList;
-import java.util.stream.Stream;
+import org.jetbrains.annotations.NotNull;
 
 /**
  * Represents a dynamic light source which is deferred to a {@link DynamicLightBehavior}.
+ * <p>
+ * The same entry is given for every cell the behavior covers, the light is evaluated live by the behavior.
  *
  * @author LambdAurora, Akarys
  * @version 4.0.0
  * @since 4.0.0
  */
-public record DeferredDynamicLightSource(DynamicLightBehavior behavior) implements DynamicLightSource {
+public record DeferredDynamicLightSource(DynamicLightBehavior behavior) implements DynamicLightSource, SpatialLookupEntry {
+	/**
+	 * The position given to the behaviors when evaluating their light, reused as entries are evaluated for every queried block
+	 * from the threads querying the spatial lookup.
+	 */
+	private static final ThreadLocal<BlockPos.Mutable> QUERY_POS = ThreadLocal.withInitial(BlockPos.Mutable::new);
+
 	@Override
-	public Stream<SpatialLookupEntry> splitIntoDynamicLightEntries() {
+	public void splitIntoDynamicLightEntries(@NotNull SpatialLookupSink sink) {
 		DynamicLightBehavior.BoundingBox boundingBox = this.behavior.getBoundingBox();
 
-		var chunks = new ArrayList<SpatialLookupEntry>();
-
 		int cellEndX = DynamicLightingEngine.positionToCell(boundingBox.endX());
 		int cellEndY = DynamicLightingEngine.positionToCell(boundingBox.endY());
 		int cellEndZ = DynamicLightingEngine.positionToCell(boundingBox.endZ());
@@ -42,24 +47,67 @@ public record DeferredDynamicLightSource(DynamicLightBehavior behavior) implemen
 		for (int x = DynamicLightingEngine.positionToCell(boundingBox.startX()); x <= cellEndX; x++) {
 			for (int y = DynamicLightingEngine.positionToCell(boundingBox.startY()); y <= cellEndY; y++) {
 				for (int z = DynamicLightingEngine.positionToCell(boundingBox.startZ()); z <= cellEndZ; z++) {
-					chunks.add(new SpatialLookupDeferredEntry(DynamicLightingEngine.hashCell(x, y, z), behavior));
+					sink.accept(DynamicLightingEngine.cellKey(x, y, z), this);
 				}
 			}
 		}
+	}
+
+	@Override
+	public boolean hasSpatialLookupEntriesChanged(@NotNull LongList previousCellKeys) {
+		DynamicLightBehavior.BoundingBox boundingBox = this.behavior.getBoundingBox();
+
+		int cellStartX = DynamicLightingEngine.positionToCell(boundingBox.startX());
+		int cellStartY = DynamicLightingEngine.positionToCell(boundingBox.startY());
+		int cellStartZ = DynamicLightingEngine.positionToCell(boundingBox.startZ());
+		int cellEndX = DynamicLightingEngine.positionToCell(boundingBox.endX());
+		int cellEndY = DynamicLightingEngine.positionToCell(boundingBox.endY());
+		int cellEndZ = DynamicLightingEngine.positionToCell(boundingBox.endZ());
 
-		return chunks.stream();
+		// The entries cover a cuboid of cells, in order, so checking the count and both ends is enough.
+		// The light itself is evaluated live by the behavior.
+		int cellCount = (cellEndX - cellStartX + 1) * (cellEndY - cellStartY + 1) * (cellEndZ - cellStartZ + 1);
+		return previousCellKeys.size() != cellCount
+				|| previousCellKeys.getLong(0) != DynamicLightingEngine.cellKey(cellStartX, cellStartY, cellStartZ)
+				|| previousCellKeys.getLong(cellCount - 1) != DynamicLightingEngine.cellKey(cellEndX, cellEndY, cellEndZ);
 	}
 
 	@Override
-	public LongSet getDynamicLightChunksToRebuild(boolean forced) {
+	public double getDynamicLightPriority(double cameraX, double cameraY, double cameraZ) {
+		DynamicLightBehavior.BoundingBox boundingBox = this.behavior.getBoundingBox();
+
+		// The closest point of the light-emitting volume is where the behavior is the most visible from the camera.
+		var closest = BlockPos.ofFloored(
+				MathHelper.clamp(cameraX, boundingBox.startX(), boundingBox.endX()),
+				MathHelper.clamp(cameraY, boundingBox.startY(), boundingBox.endY()),
+				MathHelper.clamp(cameraZ, boundingBox.startZ(), boundingBox.endZ())
+		);
+		double dx = closest.getX() + 0.5 - cameraX;
+		double dy = closest.getY() + 0.5 - cameraY;
+		double dz = closest.getZ() + 0.5 - cameraZ;
+
+		return DynamicLightSource.computePriority(
+				Kind.BEHAVIOR,
+				this.behavior.lightAtPos(closest, 15. / DynamicLightingEngine.MAX_RADIUS),
+				dx * dx + dy * dy + dz * dz
+		);
+	}
+
+	@Override
+	public double getDynamicLightLevel(int x, int y, int z) {
+		double luminance = this.behavior.lightAtPos(QUERY_POS.get().set(x, y, z), 15. / DynamicLightingEngine.MAX_RADIUS);
+		luminance = Math.max(luminance, 0);
+		return luminance;
+	}
+
+	@Override
+	public void gatherDynamicLightChunksToRebuild(boolean forced, @NotNull LongSet chunks) {
 		if (!forced && !this.behavior.hasChanged()) {
-			return LongSet.of();
+			return;
 		}
 
 		DynamicLightBehavior.BoundingBox boundingBox = this.behavior.getBoundingBox();
 
-		var chunks = new LongOpenHashSet();
-
 		int chunkStartX = getStartChunk(boundingBox.startX());
 		int chunkStartY = getStartChunk(boundingBox.startY());
 		int chunkStartZ = getStartChunk(boundingBox.startZ());
@@ -74,8 +122,6 @@ public record DeferredDynamicLightSource(DynamicLightBehavior behavior) implemen
 				}
 			}
 		}
-
-		return chunks;
 	}
 
 	private static int getStartChunk(int blockPos) {
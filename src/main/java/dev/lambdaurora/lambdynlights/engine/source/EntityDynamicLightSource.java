@@ -11,16 +11,21 @@ package dev.lambdaurora.lambdynlights.engine.source;
 
 import dev.lambdaurora.lambdynlights.LambDynLights;
 import dev.lambdaurora.lambdynlights.engine.DynamicLightingEngine;
-import dev.lambdaurora.lambdynlights.engine.lookup.SpatialLookupEntityEntry;
-import dev.lambdaurora.lambdynlights.engine.lookup.SpatialLookupEntry;
+import dev.lambdaurora.lambdynlights.engine.lookup.SpatialLookupSink;
+import it.unimi.dsi.fastutil.longs.LongList;
 import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Range;
 
-import java.util.stream.Stream;
-
 /**
  * Represents an entity-based dynamic light source.
+ * <p>
+ * An entity-based dynamic light source is a single point light which is refreshed every time the spatial lookup is computed,
+ * unless its {@linkplain dev.lambdaurora.lambdynlights.engine.DynamicLightUpdateTiers update tier} skips the current tick.
  *
  * @author LambdAurora
  * @version 4.0.0
@@ -69,14 +74,55 @@ public interface EntityDynamicLightSource extends DynamicLightSource {
 	void dynamicLightTick();
 
 	@Override
-	default Stream<SpatialLookupEntry> splitIntoDynamicLightEntries() {
+	default void splitIntoDynamicLightEntries(@NotNull SpatialLookupSink sink) {
+		sink.acceptPoint(
+				this.getDynamicLightCellKey(),
+				this.getDynamicLightX(), this.getDynamicLightY(), this.getDynamicLightZ(),
+				this.getLuminance()
+		);
+	}
+
+	@Override
+	default boolean hasSpatialLookupEntriesChanged(@NotNull LongList previousCellKeys) {
+		// The position and luminance within the cell are refreshed anyway, so only a change of cell matters.
+		return previousCellKeys.size() != 1 || previousCellKeys.getLong(0) != this.getDynamicLightCellKey();
+	}
+
+	@Override
+	default boolean hasLivePointLights() {
+		return true;
+	}
+
+	@Override
+	default boolean shouldRefreshLivePointLights() {
+		// Same as the polling of the light sources, so the spatial lookup only moves the light sources whose sections get rebuilt.
+		return !(this instanceof Entity entity) || LambDynLights.get().shouldForceRefresh()
+				|| LambDynLights.get().updateTiers.shouldUpdate(this, entity.getId());
+	}
+
+	@Override
+	default double getDynamicLightPriority(double cameraX, double cameraY, double cameraZ) {
+		double dx = this.getDynamicLightX() - cameraX;
+		double dy = this.getDynamicLightY() - cameraY;
+		double dz = this.getDynamicLightZ() - cameraZ;
+
+		Kind kind;
+		if (this instanceof Player) {
+			kind = Kind.PLAYER;
+		} else if (this instanceof LivingEntity) {
+			kind = Kind.LIVING_ENTITY;
+		} else {
+			kind = Kind.ENTITY;
+		}
+
+		return DynamicLightSource.computePriority(kind, this.getLuminance(), dx * dx + dy * dy + dz * dz);
+	}
+
+	private long getDynamicLightCellKey() {
 		int x = MathHelper.floor(this.getDynamicLightX());
 		int y = MathHelper.floor(this.getDynamicLightY());
 		int z = MathHelper.floor(this.getDynamicLightZ());
 
-		int cellKey = DynamicLightingEngine.hashAt(x, y, z);
-		SpatialLookupEntry entry = new SpatialLookupEntityEntry(cellKey, this);
-
-		return Stream.of(entry);
+		return DynamicLightingEngine.cellKeyAt(x, y, z);
 	}
 }
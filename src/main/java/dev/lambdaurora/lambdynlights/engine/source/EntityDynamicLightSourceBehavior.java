@@ -11,12 +11,12 @@ package dev.lambdaurora.lambdynlights.engine.source;
 
 import dev.lambdaurora.lambdynlights.LambDynLights;
 import dev.lambdaurora.lambdynlights.echo.GuardianEntityLightSource;
-import dev.lambdaurora.lambdynlights.engine.DynamicLightingEngine;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import it.unimi.dsi.fastutil.longs.LongSet;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.monster.Guardian;
 import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
 
 /**
  * Represents the behavior of a dynamic light source.
@@ -86,8 +86,12 @@ public interface EntityDynamicLightSourceBehavior extends EntityDynamicLightSour
 
 		if (entity.isRemoved()) {
 			lightSource.setDynamicLightEnabled(false);
-		} else {
-			if (DynamicLightingEngine.canLightUp(entity)) {
+		} else if (
+				// Untracked light sources have to be able to light up right away, and forced refreshes apply to every light source.
+				!lightSource.isDynamicLightEnabled() || LambDynLights.get().shouldForceRefresh()
+						|| LambDynLights.get().updateTiers.shouldUpdate(lightSource, entity.getId())
+		) {
+			if (LambDynLights.canLightUp(entity)) {
 				lightSource.dynamicLightTick();
 			} else {
 				lightSource.setLuminance(0);
@@ -100,7 +104,7 @@ public interface EntityDynamicLightSourceBehavior extends EntityDynamicLightSour
 		}
 	}
 
-	default LongSet getDynamicLightChunksToRebuild(boolean forced) {
+	default void gatherDynamicLightChunksToRebuild(boolean forced, @NotNull LongSet chunks) {
 		double x = this.getDynamicLightX();
 		double y = this.getDynamicLightY();
 		double z = this.getDynamicLightZ();
@@ -110,24 +114,46 @@ public interface EntityDynamicLightSourceBehavior extends EntityDynamicLightSour
 
 		int luminance = this.getLuminance();
 
-		if (!forced && Math.abs(deltaX) <= 0.1 && Math.abs(deltaY) <= 0.1 && Math.abs(deltaZ) <= 0.1 && luminance == this.getLastDynamicLuminance()) {
-			return LongSet.of();
+		if (!forced) {
+			int lastLuminance = this.getLastDynamicLuminance();
+
+			double threshold = LambDynLights.REBUILD_MOVEMENT_THRESHOLD;
+
+			if (Math.abs(deltaX) <= threshold && Math.abs(deltaY) <= threshold && Math.abs(deltaZ) <= threshold
+					&& luminance == lastLuminance) {
+				return;
+			}
+
+			// Small movements, like bobbing in water, which stay within the same cell of the snapping grid as the position
+			// the sections were rebuilt for barely change the light levels, the rebuilt position stays the reference.
+			if (luminance == lastLuminance
+					&& snapToRebuildGrid(x) == snapToRebuildGrid(this.getDynamicLightPrevX())
+					&& snapToRebuildGrid(y) == snapToRebuildGrid(this.getDynamicLightPrevY())
+					&& snapToRebuildGrid(z) == snapToRebuildGrid(this.getDynamicLightPrevZ())) {
+				return;
+			}
 		}
 
 		var newPos = new LongOpenHashSet();
 
-		if (luminance > 0) {
-			DynamicLightSource.gatherClosestChunks(newPos, x, y, z);
-		}
+		LambDynLights.gatherLitChunks(newPos, x, y, z, luminance);
 
-		var result = new LongOpenHashSet(newPos);
-		result.addAll(this.lambdynlights$getTrackedLitChunkPos());
+		chunks.addAll(newPos);
+		chunks.addAll(this.lambdynlights$getTrackedLitChunkPos());
 
 		this.updateDynamicLightPreviousCoordinates();
 		this.setLastDynamicLuminance(luminance);
 		this.lambdynlights$setTrackedLitChunkPos(newPos);
+	}
 
-		return result;
+	/**
+	 * {@return the cell of the snapping grid the given coordinate is in}
+	 *
+	 * @param coordinate the coordinate
+	 * @see LambDynLights#REBUILD_SNAP_GRID
+	 */
+	private static long snapToRebuildGrid(double coordinate) {
+		return (long) Math.floor(coordinate / LambDynLights.REBUILD_SNAP_GRID);
 	}
 
 	LongSet lambdynlights$getTrackedLitChunkPos();
@@ -13,6 +13,7 @@ import dev.lambdaurora.lambdynlights.DynamicLightsConfig;
 import dev.lambdaurora.lambdynlights.ExplosiveLightingMode;
 import dev.lambdaurora.lambdynlights.LambDynLights;
 import dev.lambdaurora.lambdynlights.accessor.DynamicLightHandlerHolder;
+import dev.lambdaurora.lambdynlights.engine.lookup.SpatialLookupLayout;
 import dev.lambdaurora.spruceui.Position;
 import dev.lambdaurora.spruceui.SpruceTexts;
 import dev.lambdaurora.spruceui.background.Background;
@@ -56,8 +57,16 @@ public class SettingsScreen extends SpruceScreen {
 	private final SpruceOption waterSensitiveOption;
 	private final SpruceOption creeperLightingOption;
 	private final SpruceOption tntLightingOption;
+	private final SpruceOption maxLightEntriesOption;
+	private final SpruceOption maxSectionRebuildsPerTickOption;
+	private final SpruceOption nearUpdateDistanceOption;
+	private final SpruceOption farUpdateDistanceOption;
+	private final SpruceOption midUpdateIntervalOption;
+	private final SpruceOption farUpdateIntervalOption;
+	private final SpruceOption lookupLayoutOption;
 	private final SpruceOption debugCellDisplayRadiusOption;
 	private final SpruceOption debugLightLevelRadiusOption;
+	private final SpruceOption debugDumpLatenciesOption;
 	private final SpruceOption resetOption;
 	private SpruceTabbedWidget tabbedWidget;
 	private SpruceTextFieldWidget searchInput;
@@ -84,6 +93,66 @@ public class SettingsScreen extends SpruceScreen {
 						ExplosiveLightingMode.OFF.getTranslatedText(),
 						ExplosiveLightingMode.SIMPLE.getTranslatedText(),
 						ExplosiveLightingMode.FANCY.getTranslatedText()));
+		this.maxLightEntriesOption = new SpruceDoubleOption("lambdynlights.option.performance.max_light_entries",
+				DynamicLightsConfig.MIN_MAX_LIGHT_ENTRIES,
+				DynamicLightsConfig.MAX_MAX_LIGHT_ENTRIES,
+				DynamicLightsConfig.MIN_MAX_LIGHT_ENTRIES,
+				() -> (double) this.config.getMaxLightEntries(),
+				value -> this.config.setMaxLightEntries(value.intValue()),
+				option -> option.getDisplayText(Text.literal(String.format("%.0f", option.get()))),
+				Text.translatable("lambdynlights.option.performance.max_light_entries.tooltip")
+		);
+		this.maxSectionRebuildsPerTickOption = new SpruceDoubleOption("lambdynlights.option.performance.max_section_rebuilds_per_tick",
+				DynamicLightsConfig.MIN_MAX_SECTION_REBUILDS_PER_TICK,
+				DynamicLightsConfig.MAX_MAX_SECTION_REBUILDS_PER_TICK,
+				DynamicLightsConfig.MIN_MAX_SECTION_REBUILDS_PER_TICK,
+				() -> (double) this.config.getMaxSectionRebuildsPerTick(),
+				value -> this.config.setMaxSectionRebuildsPerTick(value.intValue()),
+				option -> option.getDisplayText(Text.literal(String.format("%.0f", option.get()))),
+				Text.translatable("lambdynlights.option.performance.max_section_rebuilds_per_tick.tooltip")
+		);
+		this.nearUpdateDistanceOption = new SpruceDoubleOption("lambdynlights.option.performance.update_tiers.near_distance",
+				DynamicLightsConfig.MIN_UPDATE_DISTANCE,
+				DynamicLightsConfig.MAX_UPDATE_DISTANCE,
+				8,
+				() -> (double) this.config.getNearUpdateDistance(),
+				value -> this.config.setNearUpdateDistance(value.intValue()),
+				option -> option.getDisplayText(Text.literal(String.format("%.0f", option.get()))),
+				Text.translatable("lambdynlights.option.performance.update_tiers.near_distance.tooltip")
+		);
+		this.farUpdateDistanceOption = new SpruceDoubleOption("lambdynlights.option.performance.update_tiers.far_distance",
+				DynamicLightsConfig.MIN_UPDATE_DISTANCE,
+				DynamicLightsConfig.MAX_UPDATE_DISTANCE,
+				8,
+				() -> (double) this.config.getFarUpdateDistance(),
+				value -> this.config.setFarUpdateDistance(value.intValue()),
+				option -> option.getDisplayText(Text.literal(String.format("%.0f", option.get()))),
+				Text.translatable("lambdynlights.option.performance.update_tiers.far_distance.tooltip")
+		);
+		this.midUpdateIntervalOption = new SpruceDoubleOption("lambdynlights.option.performance.update_tiers.mid_interval",
+				DynamicLightsConfig.MIN_UPDATE_INTERVAL,
+				DynamicLightsConfig.MAX_UPDATE_INTERVAL,
+				1,
+				() -> (double) this.config.getMidUpdateInterval(),
+				value -> this.config.setMidUpdateInterval(value.intValue()),
+				option -> option.getDisplayText(Text.literal(String.format("%.0f", option.get()))),
+				Text.translatable("lambdynlights.option.performance.update_tiers.mid_interval.tooltip")
+		);
+		this.farUpdateIntervalOption = new SpruceDoubleOption("lambdynlights.option.performance.update_tiers.far_interval",
+				DynamicLightsConfig.MIN_UPDATE_INTERVAL,
+				DynamicLightsConfig.MAX_UPDATE_INTERVAL,
+				1,
+				() -> (double) this.config.getFarUpdateInterval(),
+				value -> this.config.setFarUpdateInterval(value.intValue()),
+				option -> option.getDisplayText(Text.literal(String.format("%.0f", option.get()))),
+				Text.translatable("lambdynlights.option.performance.update_tiers.far_interval.tooltip")
+		);
+		this.lookupLayoutOption = new SpruceCyclingOption("lambdynlights.option.performance.lookup_layout",
+				amount -> this.config.setLookupLayout(this.config.getLookupLayout().next()),
+				option -> option.getDisplayText(Text.translatable(this.config.getLookupLayout().getTranslationKey())),
+				Text.translatable("lambdynlights.option.performance.lookup_layout.tooltip",
+						Text.translatable(SpatialLookupLayout.NEIGHBOR_PROBES.getTranslationKey()),
+						Text.translatable(SpatialLookupLayout.REPLICATED.getTranslationKey())));
 		this.debugCellDisplayRadiusOption = new SpruceDoubleOption("lambdynlights.option.debug.cell_display_radius",
 				0,
 				10,
@@ -110,6 +179,10 @@ public class SettingsScreen extends SpruceScreen {
 				),
 				null
 		);
+		this.debugDumpLatenciesOption = SpruceSimpleActionOption.of("lambdynlights.option.debug.dump_latencies",
+				btn -> LambDynLights.get().dumpLatencyHistograms(),
+				Text.translatable("lambdynlights.option.debug.dump_latencies.tooltip")
+		);
 		this.resetOption = SpruceSimpleActionOption.reset(btn -> {
 			this.config.reset();
 			var client = Minecraft.getInstance();
@@ -148,6 +221,11 @@ public class SettingsScreen extends SpruceScreen {
 		this.tabbedWidget.addTabEntry(Text.empty().append(dynamicLightSources).append(": ").append(this.entitiesOption.getPrefix()),
 				null, this.tabContainerBuilder(this::buildEntitiesTab));
 		this.tabbedWidget.addSeparatorEntry(Text.translatable("lambdynlights.menu.tabs.advanced"));
+		this.tabbedWidget.addTabEntry(
+				Text.translatable("lambdynlights.menu.tabs.performance"),
+				Text.translatable("lambdynlights.menu.tabs.performance.description").withStyle(TextFormatting.GRAY),
+				this.tabContainerBuilder(this::buildPerformanceTab)
+		);
 		this.tabbedWidget.addTabEntry(
 				Text.translatable("lambdynlights.menu.tabs.debug"),
 				Text.translatable("lambdynlights.menu.tabs.debug.description").withStyle(TextFormatting.GRAY),
@@ -194,6 +272,16 @@ public class SettingsScreen extends SpruceScreen {
 		context.addInnerWidget(list);
 	}
 
+	private void buildPerformanceTab(TabContext context) {
+		var list = new SpruceOptionListWidget(Position.of(0, 0), context.width(), context.height());
+		list.addSingleOptionEntry(this.maxLightEntriesOption);
+		list.addSingleOptionEntry(this.lookupLayoutOption);
+		list.addSingleOptionEntry(this.maxSectionRebuildsPerTickOption);
+		list.addOptionEntry(this.nearUpdateDistanceOption, this.farUpdateDistanceOption);
+		list.addOptionEntry(this.midUpdateIntervalOption, this.farUpdateIntervalOption);
+		context.addInnerWidget(list);
+	}
+
 	private void buildDebugTab(TabContext context) {
 		var list = new SpruceOptionListWidget(Position.of(0, 0), context.width(), context.height());
 		list.addSingleOptionEntry(this.config.getDebugActiveDynamicLightingCells().getOption());
@@ -201,6 +289,7 @@ public class SettingsScreen extends SpruceScreen {
 		list.addSingleOptionEntry(this.config.getDebugDisplayDynamicLightingChunkRebuilds().getOption());
 		list.addSingleOptionEntry(this.debugLightLevelRadiusOption);
 		list.addSingleOptionEntry(this.config.getDebugDisplayHandlerBoundingBox().getOption());
+		list.addSingleOptionEntry(this.debugDumpLatenciesOption);
 		context.addInnerWidget(list);
 	}
 
@@ -0,0 +1,49 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of LambDynamicLights.
+ *
+ * Licensed under the Lambda License. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.lambdynlights.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Represents the Java Flight Recorder event of a batch of chunk section rebuilds scheduled by dynamic lighting.
+ * <p>
+ * Removed and updated light sources mark chunk sections as dirty, the dirty sections are then released to the renderer
+ * within the rebuild budget of the tick.
+ *
+ * @author LambdAurora
+ * @version 4.0.0
+ * @since 4.0.0
+ */
+@Name("dev.lambdaurora.lambdynlights.ChunkRebuildBatch")
+@Label("Dynamic Lighting Chunk Rebuild Batch")
+@Category({"LambDynamicLights", "Tick"})
+@Description("Chunk section rebuilds marked dirty or released to the renderer during a tick because of dynamic light sources.")
+@StackTrace(false)
+public final class ChunkRebuildBatchEvent extends Event {
+	public static final String CAUSE_REMOVED = "removed";
+	public static final String CAUSE_UPDATED = "updated";
+	public static final String CAUSE_RELEASED = "released";
+
+	@Label("Cause")
+	@Description("Whether the sections are marked dirty by removed or updated light sources, or released to the renderer.")
+	public String cause;
+
+	@Label("Light Sources")
+	public int lightSources;
+
+	@Label("Sections")
+	@Description("The number of chunk sections.")
+	public int sections;
+}
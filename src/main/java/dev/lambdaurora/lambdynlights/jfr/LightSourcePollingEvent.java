@@ -0,0 +1,41 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of LambDynamicLights.
+ *
+ * Licensed under the Lambda License. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.lambdynlights.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Represents the Java Flight Recorder event of the polling of the dynamic light sources at the end of a world tick.
+ *
+ * @author LambdAurora
+ * @version 4.0.0
+ * @since 4.0.0
+ */
+@Name("dev.lambdaurora.lambdynlights.LightSourcePolling")
+@Label("Dynamic Light Source Polling")
+@Category({"LambDynamicLights", "Tick"})
+@Description("Polling of the dynamic light sources for the chunk sections to rebuild.")
+@StackTrace(false)
+public final class LightSourcePollingEvent extends Event {
+	@Label("Polled Light Sources")
+	public int polled;
+
+	@Label("Updated Light Sources")
+	@Description("The light sources which had chunk sections to rebuild.")
+	public int updated;
+
+	@Label("Removed Light Sources")
+	public int removed;
+}
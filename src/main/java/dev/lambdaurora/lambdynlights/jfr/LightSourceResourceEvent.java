@@ -0,0 +1,45 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of LambDynamicLights.
+ *
+ * Licensed under the Lambda License. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.lambdynlights.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Represents the Java Flight Recorder event of the loading or the application of light source resources.
+ *
+ * @author LambdAurora
+ * @version 4.0.0
+ * @since 4.0.0
+ */
+@Name("dev.lambdaurora.lambdynlights.LightSourceResource")
+@Label("Light Source Resources")
+@Category({"LambDynamicLights", "Resources"})
+@Description("Loading of light source resources from resource packs, or application of them to the registries.")
+@StackTrace(false)
+public final class LightSourceResourceEvent extends Event {
+	public static final String PHASE_LOAD = "load";
+	public static final String PHASE_APPLY = "apply";
+
+	@Label("Light Source Type")
+	@Description("The resource path of the light sources, such as item or entity.")
+	public String type;
+
+	@Label("Phase")
+	public String phase;
+
+	@Label("Light Sources")
+	@Description("The number of light sources loaded or applied.")
+	public int lightSources;
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of LambDynamicLights.
+ *
+ * Licensed under the Lambda License. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.lambdynlights.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Represents the Java Flight Recorder event of the evaluation of the luminance of an entity.
+ * <p>
+ * Luminance is evaluated for every entity on every tick, so only one in {@value #SAMPLE_INTERVAL} evaluations is recorded.
+ *
+ * @author LambdAurora
+ * @version 4.0.0
+ * @since 4.0.0
+ */
+@Name("dev.lambdaurora.lambdynlights.LuminanceEvaluation")
+@Label("Entity Luminance Evaluation")
+@Category({"LambDynamicLights", "Tick"})
+@Description("Sampled evaluation of the luminance of an entity from its light sources.")
+@StackTrace(false)
+public final class LuminanceEvaluationEvent extends Event {
+	private static final int SAMPLE_INTERVAL = 64;
+	private static int evaluations = 0;
+
+	@Label("Entity Type")
+	public String entityType;
+
+	@Label("Luminance")
+	public int luminance;
+
+	/**
+	 * {@return {@code true} if the current evaluation should be recorded, or {@code false} otherwise}
+	 * <p>
+	 * This is only meant to be called from the client thread.
+	 */
+	public static boolean shouldSample() {
+		return ++evaluations % SAMPLE_INTERVAL == 0;
+	}
+}
@@ -11,7 +11,8 @@ package dev.lambdaurora.lambdynlights.mixin;
 
 import dev.lambdaurora.lambdynlights.LambDynLights;
 import dev.lambdaurora.lambdynlights.LambDynLightsConstants;
-import dev.lambdaurora.lambdynlights.engine.DynamicLightingEngine;
+import dev.lambdaurora.lambdynlights.engine.DynamicLightQuerySite;
+import dev.lambdaurora.lambdynlights.engine.DynamicLightUpdateTiers;
 import net.minecraft.TextFormatting;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.components.DebugScreenOverlay;
@@ -46,8 +47,18 @@ public class DebugScreenOverlayMixin {
 				.append(" (Occupying ")
 				.append(ldl.engine.getLastEntryCount())
 				.append('/')
-				.append(DynamicLightingEngine.MAX_LIGHT_SOURCES)
-				.append(" ; Updated: ")
+				.append(ldl.engine.getCapacity())
+				.append(" ; Dropped: ");
+
+		if (ldl.engine.getLastDroppedCount() > 0) {
+			builder.append(TextFormatting.RED)
+					.append(ldl.engine.getLastDroppedCount())
+					.append(TextFormatting.RESET);
+		} else {
+			builder.append(0);
+		}
+
+		builder.append(" ; Updated: ")
 				.append(ldl.getLastUpdateCount());
 
 		if (!ldl.config.getDynamicLightsMode().isEnabled()) {
@@ -60,11 +71,78 @@ public class DebugScreenOverlayMixin {
 		builder.append(')');
 		list.add(builder.toString());
 
-		list.add(prefix + "Compute Spatial Lookup Timing: %.3fms (avg. 40t)"
-				.formatted(ldl.engine.getComputeSpatialLookupTime() / 1_000_000.f));
+		if (ldl.engine.getLastEvictedSourceCount() > 0) {
+			list.add(prefix + TextFormatting.RED + "Evicted Light Sources: %d (over the %d entries budget)"
+					.formatted(ldl.engine.getLastEvictedSourceCount(), ldl.config.getMaxLightEntries()));
+		}
+
+		list.add(prefix + "Update Tiers: near %d ; mid %d ; far %d ; skipped %d".formatted(
+				ldl.updateTiers.getLastPolledCount(DynamicLightUpdateTiers.NEAR),
+				ldl.updateTiers.getLastPolledCount(DynamicLightUpdateTiers.MID),
+				ldl.updateTiers.getLastPolledCount(DynamicLightUpdateTiers.FAR),
+				ldl.updateTiers.getLastSkippedCount()
+		));
+		list.add(prefix + "Section Rebuilds: %d marked ; %d dirty ; %d queued ; %d released (budget %d/tick)".formatted(
+				ldl.sectionRebuildScheduler.getLastRawCount(),
+				ldl.sectionRebuildScheduler.getLastDirtyCount(),
+				ldl.sectionRebuildScheduler.getQueueDepth(),
+				ldl.sectionRebuildScheduler.getLastReleasedCount(),
+				ldl.config.getMaxSectionRebuildsPerTick()
+		));
+
+		list.add(prefix + "Compute Spatial Lookup: %s ; Re-binned: %d"
+				.formatted(ldl.engine.getLastComputeLatencies().toSummaryString(), ldl.engine.getLastRebinnedCount()));
+		list.add(prefix + "Query (sampled): " + ldl.engine.getLastQueryLatencies().toSummaryString());
+		list.add(prefix + "Section Fill: " + ldl.engine.getLastSectionFillLatencies().toSummaryString());
+
+		list.add(prefix + "Voxel Cache: %.1f%% hits (%d queries/tick)"
+				.formatted(ldl.engine.getLastVoxelCacheHitRate() * 100.f, ldl.engine.getLastVoxelCacheQueryCount()));
+
+		long queries = 0;
+		long cellProbes = 0;
+		long evaluatedLights = 0;
+		var sites = new StringBuilder();
+		for (var site : DynamicLightQuerySite.values()) {
+			long siteQueries = ldl.engine.getLastQueryCount(site);
+			queries += siteQueries;
+			cellProbes += ldl.engine.getLastCellProbeCount(site);
+			evaluatedLights += ldl.engine.getLastEvaluatedLightCount(site);
+
+			if (siteQueries > 0) {
+				sites.append(sites.isEmpty() ? "" : ", ").append(site.getName()).append(' ').append(siteQueries);
+			}
+		}
+		list.add(prefix + "Queries: %d/tick (%s) ; Probed Cells: %d ; Evaluated Lights: %d"
+				.formatted(queries, sites, cellProbes, evaluatedLights));
+
+		var threads = new StringBuilder();
+		var threadCounts = ldl.engine.getLastThreadQueryCounts();
+		for (int i = 0; i < Math.min(3, threadCounts.size()); i++) {
+			var threadCount = threadCounts.get(i);
+			threads.append(i == 0 ? "" : ", ").append(threadCount.threadName()).append(' ').append(threadCount.queries());
+
+			// The sites of the thread, only worth showing if there are several of them.
+			var threadSites = new StringBuilder();
+			int siteCount = 0;
+			for (var site : DynamicLightQuerySite.values()) {
+				long siteQueries = threadCount.getQueries(site);
+
+				if (siteQueries > 0) {
+					threadSites.append(siteCount++ == 0 ? "" : ", ").append(site.getName()).append(' ').append(siteQueries);
+				}
+			}
+			if (siteCount > 1) {
+				threads.append(" (").append(threadSites).append(')');
+			}
+		}
+		if (threadCounts.size() > 3) {
+			threads.append(", +").append(threadCounts.size() - 3).append(" more");
+		}
+		list.add(prefix + "Query Threads: " + threads);
 
+		var feetPos = this.minecraft.player.getBlockPos();
 		list.add(prefix + "Dynamic Light At Feet: %.3f"
-				.formatted(ldl.engine.getDynamicLightLevel(this.minecraft.player.getBlockPos())));
+				.formatted(ldl.engine.getDynamicLightLevel(feetPos.getX(), feetPos.getY(), feetPos.getZ(), DynamicLightQuerySite.DEBUG)));
 
 		if (LambDynLightsConstants.isDevMode()) {
 			list.add(TextFormatting.RED + LambDynLightsConstants.DEV_MODE_OVERLAY_TEXT);
@@ -10,6 +10,8 @@
 package dev.lambdaurora.lambdynlights.mixin;
 
 import dev.lambdaurora.lambdynlights.LambDynLights;
+import dev.lambdaurora.lambdynlights.engine.DynamicLightQuerySite;
+import dev.lambdaurora.lambdynlights.engine.lookup.FixedPointLightLevels;
 import dev.lambdaurora.lambdynlights.engine.source.EntityDynamicLightSource;
 import net.minecraft.client.renderer.entity.EntityRenderer;
 import net.minecraft.core.BlockPos;
@@ -31,7 +33,7 @@ public class EntityRendererMixin<T extends Entity> {
 		if (entityLuminance >= 15)
 			cir.setReturnValue(entityLuminance);
 
-		int posLuminance = (int) LambDynLights.get().getDynamicLightLevel(pos);
+		int posLuminance = FixedPointLightLevels.getLightLevel(LambDynLights.get().engine.getCachedDynamicLightLevel(pos.getX(), pos.getY(), pos.getZ(), DynamicLightQuerySite.ENTITY));
 
 		cir.setReturnValue(Math.max(Math.max(vanilla, entityLuminance), posLuminance));
 	}
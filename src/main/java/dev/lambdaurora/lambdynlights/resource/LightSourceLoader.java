@@ -14,6 +14,7 @@ import com.google.gson.JsonParser;
 import com.mojang.serialization.DynamicOps;
 import com.mojang.serialization.JsonOps;
 import dev.lambdaurora.lambdynlights.LambDynLights;
+import dev.lambdaurora.lambdynlights.jfr.LightSourceResourceEvent;
 import dev.yumi.commons.Unit;
 import net.fabricmc.fabric.api.resource.IdentifiableResourceReloadListener;
 import net.minecraft.client.Minecraft;
@@ -79,10 +80,15 @@ public abstract class LightSourceLoader<L> implements IdentifiableResourceReload
 	 * @param resourceManager the resource manager
 	 */
 	protected void load(ResourceManager resourceManager) {
+		var event = new LightSourceResourceEvent();
+		event.begin();
+
 		this.loadedLightSources.clear();
 
 		resourceManager.findResources("dynamiclights/" + this.getResourcePath(), path -> path.path().endsWith(".json"))
 				.forEach(this::load);
+
+		this.commitEvent(event, LightSourceResourceEvent.PHASE_LOAD, this.loadedLightSources.size());
 	}
 
 	/**
@@ -93,10 +99,26 @@ public abstract class LightSourceLoader<L> implements IdentifiableResourceReload
 	 * @param registryAccess the registry access
 	 */
 	public void apply(RegistryAccess registryAccess) {
+		var event = new LightSourceResourceEvent();
+		event.begin();
+
 		var ops = RegistryOps.create(JsonOps.INSTANCE, registryAccess);
 
 		this.lightSources.clear();
 		this.loadedLightSources.forEach(data -> this.apply(ops, data));
+
+		this.commitEvent(event, LightSourceResourceEvent.PHASE_APPLY, this.lightSources.size());
+	}
+
+	private void commitEvent(LightSourceResourceEvent event, String phase, int lightSources) {
+		event.end();
+
+		if (event.shouldCommit()) {
+			event.type = this.getResourcePath();
+			event.phase = phase;
+			event.lightSources = lightSources;
+			event.commit();
+		}
 	}
 
 	protected void load(Identifier resourceId, Resource resource) {
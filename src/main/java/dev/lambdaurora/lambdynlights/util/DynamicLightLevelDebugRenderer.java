@@ -11,13 +11,13 @@ package dev.lambdaurora.lambdynlights.util;
 
 import com.mojang.blaze3d.vertex.MatrixStack;
 import dev.lambdaurora.lambdynlights.LambDynLights;
+import dev.lambdaurora.lambdynlights.engine.DynamicLightQuerySite;
 import dev.lambdaurora.lambdynlights.engine.DynamicLightingEngine;
 import dev.lambdaurora.spruceui.util.ColorUtil;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 import net.minecraft.client.renderer.MultiBufferSource;
 import net.minecraft.client.renderer.debug.DebugRenderer;
-import net.minecraft.core.BlockPos;
 import net.minecraft.util.math.MathHelper;
 
 /**
@@ -48,7 +48,6 @@ public class DynamicLightLevelDebugRenderer extends DynamicLightDebugRenderer {
 		int startX = this.client.player.getBlockPos().getX();
 		int startY = this.client.player.getBlockPos().getY();
 		int startZ = this.client.player.getBlockPos().getZ();
-		var pos = new BlockPos.Mutable();
 
 		if (lightDisplayRadius > 0) {
 			for (int offsetX = 0; offsetX < lightDisplayRadius * 2 + 1; offsetX++) {
@@ -57,9 +56,7 @@ public class DynamicLightLevelDebugRenderer extends DynamicLightDebugRenderer {
 						int currentX = startX + offsetX - lightDisplayRadius;
 						int currentY = startY + offsetY - lightDisplayRadius;
 						int currentZ = startZ + offsetZ - lightDisplayRadius;
-						pos.set(currentX, currentY, currentZ);
-
-						double light = this.lightingEngine.getDynamicLightLevel(pos);
+						double light = this.lightingEngine.getDynamicLightLevel(currentX, currentY, currentZ, DynamicLightQuerySite.DEBUG);
 
 						if (light <= 0.05) {
 							continue;
@@ -38,7 +38,6 @@ import java.time.Instant;
 public class DynamicLightSectionDebugRenderer extends DynamicLightDebugRenderer {
 	private static final Duration REFRESH_INTERVAL = Duration.ofMillis(250);
 	private static final int RADIUS = 10;
-	private static final int COLOR = 0x3fff9900;
 	private static final int ACTIVE_COLOR = 0x3fffff00;
 	private static final int ACTIVE_NEIGHBOR_COLOR = 0x19ffbf00;
 	private final DynamicLightingEngine lightingEngine;
@@ -73,8 +72,6 @@ public class DynamicLightSectionDebugRenderer extends DynamicLightDebugRenderer
 		int playerCellY = DynamicLightingEngine.positionToCell(this.client.player.getBlockPos().getY());
 		int playerCellZ = DynamicLightingEngine.positionToCell(this.client.player.getBlockPos().getZ());
 
-		int playerHash = DynamicLightingEngine.hashCell(playerCellX, playerCellY, playerCellZ);
-
 		if (cellDisplayRadius > 0) {
 			for (int offsetX = 0; offsetX < cellDisplayRadius * 2 + 1; offsetX++) {
 				for (int offsetY = 0; offsetY < cellDisplayRadius * 2 + 1; offsetY++) {
@@ -82,16 +79,16 @@ public class DynamicLightSectionDebugRenderer extends DynamicLightDebugRenderer
 						int cellX = playerCellX + offsetX - cellDisplayRadius;
 						int cellY = playerCellY + offsetY - cellDisplayRadius;
 						int cellZ = playerCellZ + offsetZ - cellDisplayRadius;
-						int currentHash = DynamicLightingEngine.hashCell(cellX, cellY, cellZ);
+						boolean playerCell = cellX == playerCellX && cellY == playerCellY && cellZ == playerCellZ;
 
 						DebugRenderer.renderFloatingText(
 								matrices,
 								bufferSource,
-								"HASH(%d, %d, %d) = %d".formatted(cellX, cellY, cellZ, currentHash),
+								"CELL(%d, %d, %d) = %d".formatted(cellX, cellY, cellZ, this.lightingEngine.getEntryCountAt(cellX, cellY, cellZ)),
 								cellX * DynamicLightingEngine.CELL_SIZE + DynamicLightingEngine.CELL_SIZE / 2.0,
 								cellY * DynamicLightingEngine.CELL_SIZE + DynamicLightingEngine.CELL_SIZE / 2.0,
 								cellZ * DynamicLightingEngine.CELL_SIZE + DynamicLightingEngine.CELL_SIZE / 2.0,
-								(playerHash == currentHash) ? 0xffff0000 : 0xff00ff00,
+								playerCell ? 0xffff0000 : 0xff00ff00,
 								.08f
 						);
 					}
@@ -99,7 +96,6 @@ public class DynamicLightSectionDebugRenderer extends DynamicLightDebugRenderer
 			}
 		}
 
-		renderEdges(matrices, this.data.matchShape, this.data.origin, bufferSource, x, y, z, DynamicLightingEngine.CELL_SIZE, COLOR);
 		if (this.config.getDebugActiveDynamicLightingCells().get()) {
 			renderEdges(matrices, this.data.activeShape, this.data.origin, bufferSource, x, y, z, DynamicLightingEngine.CELL_SIZE, ACTIVE_COLOR);
 			renderEdges(matrices, this.data.activeNeighborShape, this.data.origin, bufferSource, x, y, z, DynamicLightingEngine.CELL_SIZE, ACTIVE_NEIGHBOR_COLOR);
@@ -129,7 +125,6 @@ public class DynamicLightSectionDebugRenderer extends DynamicLightDebugRenderer
 		}
 
 		VertexConsumer vertexConsumer = bufferSource.getBuffer(RenderType.debugSectionQuads());
-		renderFaces(matrices, this.data.matchShape, this.data.origin, vertexConsumer, x, y, z, DynamicLightingEngine.CELL_SIZE, COLOR);
 		if (this.config.getDebugActiveDynamicLightingCells().get()) {
 			renderFaces(matrices, this.data.activeShape, this.data.origin, vertexConsumer, x, y, z, DynamicLightingEngine.CELL_SIZE, ACTIVE_COLOR);
 			renderFaces(matrices, this.data.activeNeighborShape, this.data.origin, vertexConsumer, x, y, z, DynamicLightingEngine.CELL_SIZE, ACTIVE_NEIGHBOR_COLOR);
@@ -138,18 +133,15 @@ public class DynamicLightSectionDebugRenderer extends DynamicLightDebugRenderer
 
 	@Environment(EnvType.CLIENT)
 	static final class SectionData {
-		final DiscreteVoxelShape matchShape;
 		final DiscreteVoxelShape activeShape;
 		final DiscreteVoxelShape activeNeighborShape;
 		final int playerCellX;
 		final int playerCellY;
 		final int playerCellZ;
-		final int playerHash;
 		final Vec3i origin;
 
 		SectionData(DynamicLightingEngine engine, int radius, BlockPos playerPos) {
 			int perimeter = radius * 2 + 1;
-			this.matchShape = new BitSetDiscreteVoxelShape(perimeter, perimeter, perimeter);
 			this.activeShape = new BitSetDiscreteVoxelShape(perimeter, perimeter, perimeter);
 			this.activeNeighborShape = new BitSetDiscreteVoxelShape(perimeter, perimeter, perimeter);
 
@@ -157,8 +149,6 @@ public class DynamicLightSectionDebugRenderer extends DynamicLightDebugRenderer
 			this.playerCellY = DynamicLightingEngine.positionToCell(playerPos.getY());
 			this.playerCellZ = DynamicLightingEngine.positionToCell(playerPos.getZ());
 
-			this.playerHash = DynamicLightingEngine.hashCell(this.playerCellX, this.playerCellY, this.playerCellZ);
-
 			for (int offsetX = 0; offsetX < perimeter; offsetX++) {
 				for (int offsetY = 0; offsetY < perimeter; offsetY++) {
 					for (int offsetZ = 0; offsetZ < perimeter; offsetZ++) {
@@ -166,11 +156,6 @@ public class DynamicLightSectionDebugRenderer extends DynamicLightDebugRenderer
 						int currentCellY = playerCellY - radius + offsetY;
 						int currentCellZ = playerCellZ - radius + offsetZ;
 
-						if (DynamicLightingEngine.hashCell(currentCellX, currentCellY, currentCellZ) == this.playerHash
-								&& ((offsetX != radius) || (offsetY != radius) || (offsetZ != radius))) {
-							this.matchShape.fill(offsetX, offsetY, offsetZ);
-						}
-
 						if (engine.hasEntriesAt(currentCellX, currentCellY, currentCellZ)) {
 							this.activeShape.fill(offsetX, offsetY, offsetZ);
 